@@ -0,0 +1,102 @@
+package io.quarkus.security.harness;
+
+import java.security.Permission;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import io.quarkus.security.credential.Credential;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Immutable identity created by the mock providers and copied by the mock augmentors.
+ */
+final class HarnessSecurityIdentity implements SecurityIdentity {
+
+    private static final Uni<Boolean> GRANTED = Uni.createFrom().item(Boolean.TRUE);
+    private static final Uni<Boolean> DENIED = Uni.createFrom().item(Boolean.FALSE);
+
+    private final Principal principal;
+    private final Set<String> roles;
+    private final Set<Permission> permissions;
+
+    HarnessSecurityIdentity(String principalName) {
+        this(() -> principalName, Collections.emptySet(), Collections.emptySet());
+    }
+
+    private HarnessSecurityIdentity(Principal principal, Set<String> roles, Set<Permission> permissions) {
+        this.principal = principal;
+        this.roles = roles;
+        this.permissions = permissions;
+    }
+
+    HarnessSecurityIdentity with(String role, Permission permission) {
+        Set<String> newRoles = new HashSet<>(roles);
+        newRoles.add(role);
+        Set<Permission> newPermissions = permissions;
+        if (permission != null) {
+            newPermissions = new HashSet<>(permissions);
+            newPermissions.add(permission);
+        }
+        return new HarnessSecurityIdentity(principal, Collections.unmodifiableSet(newRoles),
+                Collections.unmodifiableSet(newPermissions));
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return false;
+    }
+
+    @Override
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+
+    @Override
+    public Set<Permission> getPermissions() {
+        return permissions;
+    }
+
+    @Override
+    public <T extends Credential> T getCredential(Class<T> credentialType) {
+        return null;
+    }
+
+    @Override
+    public Set<Credential> getCredentials() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public <T> T getAttribute(String name) {
+        return null;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Uni<Boolean> checkPermission(Permission permission) {
+        for (Permission possessed : permissions) {
+            if (possessed.implies(permission)) {
+                return GRANTED;
+            }
+        }
+        return DENIED;
+    }
+}
@@ -0,0 +1,88 @@
+package io.quarkus.security.harness;
+
+/**
+ * Log-linear latency histogram in the style of the HdrHistogram: values are counted in buckets whose width grows
+ * with the value, so that every recorded value is represented with a relative error below 0.1% while the whole
+ * {@code long} range fits into a fixed number of counters.
+ * <p>
+ * Instances are not thread-safe. Each client thread records into its own histogram, and the histograms are
+ * merged with the {@link #add(LatencyHistogram)} method when the run has finished.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 11;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = Long.SIZE - SUB_BUCKET_BITS + 1;
+
+    private final long[] counts = new long[SUB_BUCKET_COUNT + (BUCKET_COUNT - 1) * HALF_SUB_BUCKET_COUNT];
+    private long totalCount;
+    private long max;
+    private double sum;
+
+    /**
+     * @param value The value to record, negative values are recorded as zero
+     */
+    void record(long value) {
+        long recorded = Math.max(0, value);
+        counts[index(recorded)]++;
+        totalCount++;
+        max = Math.max(max, recorded);
+        sum += recorded;
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        max = Math.max(max, other.max);
+        sum += other.sum;
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 100
+     * @return the highest value that is equivalent to the value at the percentile, or 0 if nothing has been recorded
+     */
+    long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                return Math.min(max, highestEquivalentValue(i));
+            }
+        }
+        return max;
+    }
+
+    private static int index(long value) {
+        int bucket = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        int subBucket = (int) (value >>> bucket);
+        return bucket * HALF_SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int bucket = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        long subBucket = index - (long) bucket * HALF_SUB_BUCKET_COUNT;
+        return (subBucket << bucket) + (1L << bucket) - 1;
+    }
+}
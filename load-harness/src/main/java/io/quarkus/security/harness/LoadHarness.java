@@ -0,0 +1,195 @@
+package io.quarkus.security.harness;
+
+import java.lang.reflect.Method;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.quarkus.security.AuthenticationFailedException;
+import io.quarkus.security.StringPermission;
+import io.quarkus.security.credential.PasswordCredential;
+import io.quarkus.security.identity.CpuIntensiveExecutor;
+import io.quarkus.security.identity.IdentityProviderManager;
+import io.quarkus.security.identity.request.UsernamePasswordAuthenticationRequest;
+
+/**
+ * Drives the authentication and authorization pipeline from many concurrent client threads and reports the throughput
+ * and the latency percentiles. Options are passed as {@code name=value} arguments, see the README for the list.
+ */
+public final class LoadHarness {
+
+    private static final Permission REQUIRED_PERMISSION = new StringPermission("orders", "read");
+
+    private final Map<String, String> options;
+
+    private LoadHarness(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException(String.format("Invalid option '%s', expected name=value", arg));
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        new LoadHarness(options).run();
+        // the Mutiny default worker pool threads are not daemon threads
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        final int threads = intOption("threads", 64);
+        final boolean virtual = Boolean.parseBoolean(option("virtual", "false"));
+        final long warmupNanos = TimeUnit.SECONDS.toNanos(intOption("warmupSeconds", 5));
+        final long durationNanos = TimeUnit.SECONDS.toNanos(intOption("durationSeconds", 30));
+        final int users = intOption("users", 1000);
+
+        final ExecutorService blockingExecutor = Executors.newFixedThreadPool(intOption("blockingThreads", 200),
+                daemonThreads("harness-blocking"));
+        final int cpuThreads = intOption("cpuThreads", Runtime.getRuntime().availableProcessors());
+        final CpuIntensiveExecutor cpuExecutor = new CpuIntensiveExecutor(cpuThreads, cpuThreads * 64);
+        final IdentityProviderManager manager = createManager(blockingExecutor, cpuExecutor);
+
+        final LongAdder success = new LongAdder();
+        final LongAdder denied = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final List<LatencyHistogram> histograms = new ArrayList<>();
+        final long start = System.nanoTime();
+        final long measureFrom = start + warmupNanos;
+        final long end = measureFrom + durationNanos;
+
+        ExecutorService clients = virtual ? newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(threads, daemonThreads("harness-client"));
+        for (int t = 0; t < threads; t++) {
+            final LatencyHistogram histogram = new LatencyHistogram();
+            histograms.add(histogram);
+            final int clientId = t;
+            clients.execute(() -> {
+                int iteration = clientId;
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    UsernamePasswordAuthenticationRequest request = new UsernamePasswordAuthenticationRequest(
+                            "user-" + (iteration++ % users), new PasswordCredential("secret".toCharArray()));
+                    boolean measured = now >= measureFrom;
+                    try {
+                        boolean granted = manager.authenticate(request)
+                                .flatMap(identity -> identity.checkPermission(REQUIRED_PERMISSION))
+                                .await().indefinitely();
+                        if (measured) {
+                            (granted ? success : denied).increment();
+                        }
+                    } catch (AuthenticationFailedException e) {
+                        if (measured) {
+                            failed.increment();
+                        }
+                    } catch (RuntimeException e) {
+                        if (measured) {
+                            errors.increment();
+                        }
+                    }
+                    if (measured) {
+                        histogram.record(System.nanoTime() - now);
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(end - System.nanoTime() + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+        blockingExecutor.shutdownNow();
+        cpuExecutor.close();
+
+        LatencyHistogram total = new LatencyHistogram();
+        for (LatencyHistogram histogram : histograms) {
+            total.add(histogram);
+        }
+        report(threads, virtual, durationNanos, total, success.sum(), denied.sum(), failed.sum(), errors.sum(),
+                cpuExecutor);
+    }
+
+    private IdentityProviderManager createManager(ExecutorService blockingExecutor, CpuIntensiveExecutor cpuExecutor) {
+        final int providerCount = intOption("providers", 2);
+        final SimulatedWork.Mode providerMode = SimulatedWork.Mode.valueOf(option("providerMode", "ASYNC"));
+        final long providerLatency = intOption("providerLatencyMicros", 500);
+        final double declineRate = Double.parseDouble(option("providerDeclineRate", "0.5"));
+        final double failureRate = Double.parseDouble(option("providerFailureRate", "0.01"));
+        List<MockIdentityProvider> providers = new ArrayList<>();
+        for (int i = 0; i < providerCount; i++) {
+            boolean last = i == providerCount - 1;
+            providers.add(new MockIdentityProvider(providerCount - i, providerMode, providerLatency,
+                    last ? 0 : declineRate, failureRate));
+        }
+
+        final int augmentorCount = intOption("augmentors", 2);
+        final SimulatedWork.Mode augmentorMode = SimulatedWork.Mode.valueOf(option("augmentorMode", "ASYNC"));
+        final long augmentorLatency = intOption("augmentorLatencyMicros", 100);
+        List<MockSecurityIdentityAugmentor> augmentors = new ArrayList<>();
+        for (int i = 0; i < augmentorCount; i++) {
+            augmentors.add(new MockSecurityIdentityAugmentor("role-" + i, i == 0 ? REQUIRED_PERMISSION : null,
+                    augmentorMode, augmentorLatency));
+        }
+        return new PipelineIdentityProviderManager(providers, augmentors, blockingExecutor, cpuExecutor);
+    }
+
+    private static void report(int threads, boolean virtual, long durationNanos, LatencyHistogram latency,
+            long success, long denied, long failed, long errors, CpuIntensiveExecutor cpuExecutor) {
+        long total = success + denied + failed + errors;
+        double seconds = durationNanos / 1e9;
+        System.out.printf("Threads:    %d (%s)%n", threads, virtual ? "virtual" : "platform");
+        System.out.printf("Duration:   %.1fs, %d requests%n", seconds, total);
+        System.out.printf("Throughput: %.1f requests/s%n", total / seconds);
+        System.out.printf("Outcomes:   granted=%d denied=%d failed=%d errors=%d%n", success, denied, failed, errors);
+        System.out.printf("Latency:    mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p999=%.3fms max=%.3fms%n",
+                latency.getMean() / 1e6, millis(latency.getValueAtPercentile(50)),
+                millis(latency.getValueAtPercentile(90)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMax()));
+        System.out.printf("CPU pool:   completed=%d rejected=%d max queue wait=%.3fms%n",
+                cpuExecutor.getCompletedCount(), cpuExecutor.getRejectedCount(),
+                millis(cpuExecutor.getMaxQueueTimeNanos()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            // the harness compiles with Java 11, virtual threads are available since Java 21
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
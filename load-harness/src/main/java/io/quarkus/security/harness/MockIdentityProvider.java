@@ -0,0 +1,57 @@
+package io.quarkus.security.harness;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.quarkus.security.AuthenticationFailedException;
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.request.UsernamePasswordAuthenticationRequest;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Identity provider that simulates the latency of a real provider, declines a share of the requests, so that
+ * they are offered to the next provider, and rejects a share of the credentials.
+ */
+final class MockIdentityProvider implements IdentityProvider<UsernamePasswordAuthenticationRequest> {
+
+    private final int priority;
+    private final SimulatedWork.Mode mode;
+    private final long latencyMicros;
+    private final double declineRate;
+    private final double failureRate;
+
+    MockIdentityProvider(int priority, SimulatedWork.Mode mode, long latencyMicros, double declineRate,
+            double failureRate) {
+        this.priority = priority;
+        this.mode = mode;
+        this.latencyMicros = latencyMicros;
+        this.declineRate = declineRate;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public Class<UsernamePasswordAuthenticationRequest> getRequestType() {
+        return UsernamePasswordAuthenticationRequest.class;
+    }
+
+    @Override
+    public Uni<SecurityIdentity> authenticate(UsernamePasswordAuthenticationRequest request,
+            AuthenticationRequestContext context) {
+        final double random = ThreadLocalRandom.current().nextDouble();
+        return SimulatedWork.run(mode, latencyMicros, context, () -> {
+            if (random < failureRate) {
+                throw new AuthenticationFailedException();
+            }
+            if (random < failureRate + declineRate) {
+                return null;
+            }
+            return new HarnessSecurityIdentity(request.getUsername());
+        });
+    }
+
+    @Override
+    public int priority() {
+        return priority;
+    }
+}
@@ -0,0 +1,32 @@
+package io.quarkus.security.harness;
+
+import java.security.Permission;
+
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.SecurityIdentityAugmentor;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Augmentor that simulates the latency of a real augmentor and adds a role and, optionally, a permission.
+ */
+final class MockSecurityIdentityAugmentor implements SecurityIdentityAugmentor {
+
+    private final String role;
+    private final Permission permission;
+    private final SimulatedWork.Mode mode;
+    private final long latencyMicros;
+
+    MockSecurityIdentityAugmentor(String role, Permission permission, SimulatedWork.Mode mode, long latencyMicros) {
+        this.role = role;
+        this.permission = permission;
+        this.mode = mode;
+        this.latencyMicros = latencyMicros;
+    }
+
+    @Override
+    public Uni<SecurityIdentity> augment(SecurityIdentity identity, AuthenticationRequestContext context) {
+        return SimulatedWork.run(mode, latencyMicros, context,
+                () -> ((HarnessSecurityIdentity) identity).with(role, permission));
+    }
+}
@@ -0,0 +1,95 @@
+package io.quarkus.security.harness;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import io.quarkus.security.AuthenticationFailedException;
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.CpuIntensiveExecutor;
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.IdentityProviderManager;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.SecurityIdentityAugmentor;
+import io.quarkus.security.identity.request.AuthenticationRequest;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * {@link IdentityProviderManager} that follows the contract of the Quarkus implementation: the request is offered
+ * to the providers of its type in the priority order until one of them creates the identity or fails, and
+ * the identity is then passed through all the augmentors in the priority order. If no provider creates the identity,
+ * the authentication fails with the {@link AuthenticationFailedException}.
+ */
+final class PipelineIdentityProviderManager implements IdentityProviderManager {
+
+    private final Map<Class<?>, List<IdentityProvider<?>>> providers = new HashMap<>();
+    private final List<SecurityIdentityAugmentor> augmentors;
+    private final AuthenticationRequestContext context;
+
+    PipelineIdentityProviderManager(List<? extends IdentityProvider<?>> providers,
+            List<? extends SecurityIdentityAugmentor> augmentors, Executor blockingExecutor,
+            CpuIntensiveExecutor cpuIntensiveExecutor) {
+        for (IdentityProvider<?> provider : providers) {
+            this.providers.computeIfAbsent(provider.getRequestType(), k -> new ArrayList<>()).add(provider);
+        }
+        for (List<IdentityProvider<?>> typeProviders : this.providers.values()) {
+            typeProviders.sort(Comparator.comparingInt(IdentityProvider<?>::priority).reversed());
+        }
+        this.augmentors = new ArrayList<>(augmentors);
+        this.augmentors.sort(Comparator.comparingInt(SecurityIdentityAugmentor::priority).reversed());
+        this.context = new AuthenticationRequestContext() {
+            @Override
+            public Uni<SecurityIdentity> runBlocking(Supplier<SecurityIdentity> function) {
+                return Uni.createFrom().item(function).runSubscriptionOn(blockingExecutor);
+            }
+
+            @Override
+            public Uni<SecurityIdentity> runCpuIntensive(Supplier<SecurityIdentity> function) {
+                return cpuIntensiveExecutor.submit(function);
+            }
+        };
+    }
+
+    @Override
+    public Uni<SecurityIdentity> authenticate(AuthenticationRequest request) {
+        List<IdentityProvider<?>> typeProviders = providers.get(request.getClass());
+        if (typeProviders == null) {
+            return Uni.createFrom().failure(new AuthenticationFailedException());
+        }
+        return authenticate(typeProviders, 0, request).flatMap(identity -> {
+            if (identity == null) {
+                return Uni.createFrom().failure(new AuthenticationFailedException());
+            }
+            return augment(identity, 0);
+        });
+    }
+
+    @Override
+    public SecurityIdentity authenticateBlocking(AuthenticationRequest request) {
+        return authenticate(request).await().indefinitely();
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Uni<SecurityIdentity> authenticate(List<IdentityProvider<?>> typeProviders, int index,
+            AuthenticationRequest request) {
+        if (index == typeProviders.size()) {
+            return Uni.createFrom().nullItem();
+        }
+        IdentityProvider provider = typeProviders.get(index);
+        // failures, including the AuthenticationFailedException, end the authentication
+        return ((Uni<SecurityIdentity>) provider.authenticate(request, context))
+                .flatMap(identity -> identity != null ? Uni.createFrom().item(identity)
+                        : authenticate(typeProviders, index + 1, request));
+    }
+
+    private Uni<SecurityIdentity> augment(SecurityIdentity identity, int index) {
+        if (index == augmentors.size()) {
+            return Uni.createFrom().item(identity);
+        }
+        return augmentors.get(index).augment(identity, context).flatMap(augmented -> augment(augmented, index + 1));
+    }
+}
@@ -0,0 +1,77 @@
+package io.quarkus.security.harness;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Simulates the latency of an identity provider or an augmentor.
+ */
+final class SimulatedWork {
+
+    enum Mode {
+        /**
+         * Completes after a non-blocking delay, like a reactive client call.
+         */
+        ASYNC,
+        /**
+         * Sleeps on the blocking pool, like a JDBC or LDAP call.
+         */
+        BLOCKING,
+        /**
+         * Keeps a CPU core busy on the CPU intensive executor, like a password hash verification.
+         */
+        CPU
+    }
+
+    private SimulatedWork() {
+    }
+
+    static Uni<SecurityIdentity> run(Mode mode, long latencyMicros, AuthenticationRequestContext context,
+            Supplier<SecurityIdentity> result) {
+        switch (mode) {
+            case BLOCKING:
+                return context.runBlocking(() -> {
+                    sleep(latencyMicros);
+                    return result.get();
+                });
+            case CPU:
+                return context.runCpuIntensive(() -> {
+                    spin(latencyMicros);
+                    return result.get();
+                });
+            default:
+                if (latencyMicros == 0) {
+                    return Uni.createFrom().item(result);
+                }
+                return Uni.createFrom().voidItem().onItem().delayIt().by(Duration.ofNanos(latencyMicros * 1000))
+                        .map(ignored -> result.get());
+        }
+    }
+
+    private static void sleep(long micros) {
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void spin(long micros) {
+        long end = System.nanoTime() + micros * 1000;
+        long x = 0;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < 100; i++) {
+                x = x * 31 + i;
+            }
+        }
+        if (x == 42) {
+            // keeps the loop from being eliminated
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package io.quarkus.security;
+
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Immutable authorization decision plan of one secured method, compiled once from all the method security annotations,
+ * such as the {@link Authenticated}, the allowed roles, one or more {@link PermissionsAllowed} and the
+ * {@link PermissionChecker}s, so that every secured invocation is authorized with a single plan evaluation instead of
+ * several independent steps that each inspect the annotations:
+ * <pre>
+ * {@code
+ * // at startup, for a method annotated with @RolesAllowed("user") and @PermissionsAllowed("order:read")
+ * AuthorizationPlan plan = AuthorizationPlan.builder()
+ *         .rolesAllowed("user")
+ *         .permissionsAllowed(false, new StringPermission("order", "read"))
+ *         .build();
+ *
+ * // for every invocation
+ * return plan.evaluate(identity, invocationContext.getParameters());
+ * }
+ * </pre>
+ * All the requirements of the plan must be met. Requirements are evaluated in two phases:
+ * <ol>
+ * <li>Synchronous tests run first, from the cheapest to the most expensive: the authentication test, the role tests,
+ * the synchronous checks and finally the tests of the required permissions against the
+ * {@link SecurityIdentity#getPermissions()} that have already been resolved. The first failed test denies the
+ * access. The required permissions are created once per evaluation, and a permission that can not be created is
+ * denied.</li>
+ * <li>Only the requirements that could not be decided synchronously, the permissions not granted by the resolved
+ * permissions and the asynchronous checks, are then evaluated concurrently. The first failed requirement denies
+ * the access and cancels the remaining ones, and a requirement that fails with an exception is considered failed.</li>
+ * </ol>
+ */
+public final class AuthorizationPlan {
+
+    private static final Uni<Boolean> GRANTED = Uni.createFrom().item(Boolean.TRUE);
+    private static final Uni<Boolean> DENIED = Uni.createFrom().item(Boolean.FALSE);
+
+    private final Requirement[] requirements;
+
+    private AuthorizationPlan(List<Requirement> requirements) {
+        List<Requirement> ordered = new ArrayList<>(requirements);
+        ordered.sort(Comparator.comparingInt(requirement -> requirement.cost));
+        this.requirements = ordered.toArray(new Requirement[0]);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Decides whether the identity may invoke the secured method.
+     *
+     * @param identity The current identity
+     * @param arguments The secured method arguments, passed to the permission factories and the checks
+     * @return Uni that will resolve to true if the access is granted
+     */
+    public Uni<Boolean> evaluate(SecurityIdentity identity, Object[] arguments) {
+        List<Uni<Boolean>> undecided = null;
+        for (Requirement requirement : requirements) {
+            Uni<Boolean> result = requirement.test(identity, arguments);
+            if (result == DENIED) {
+                return DENIED;
+            }
+            if (result != GRANTED) {
+                if (undecided == null) {
+                    undecided = new ArrayList<>(requirements.length);
+                }
+                undecided.add(result);
+            }
+        }
+        if (undecided == null) {
+            return GRANTED;
+        }
+        if (undecided.size() == 1) {
+            return undecided.get(0)
+                    .onFailure().recoverWithItem(Boolean.FALSE)
+                    .map(Boolean.TRUE::equals);
+        }
+        return allGranted(undecided, Function.identity());
+    }
+
+    /**
+     * @return true if the plan has no requirements and always grants the access
+     */
+    public boolean isPermitAll() {
+        return requirements.length == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorizationPlan" + Arrays.toString(requirements);
+    }
+
+    /**
+     * @return Uni that resolves to true if all the tests resolve to true, or to false as soon as one of them resolves
+     *         to false or fails
+     */
+    private static <T> Uni<Boolean> allGranted(List<T> items, Function<T, Uni<Boolean>> test) {
+        return Multi.createFrom().iterable(items)
+                .onItem().transformToUniAndMerge(item -> test.apply(item).onFailure().recoverWithItem(Boolean.FALSE))
+                .select().where(granted -> !Boolean.TRUE.equals(granted))
+                .toUni()
+                .map(denied -> denied == null);
+    }
+
+    /**
+     * @return Uni that resolves to true as soon as one of the tests resolves to true, or to false if none of them does
+     */
+    private static <T> Uni<Boolean> anyGranted(List<T> items, Function<T, Uni<Boolean>> test) {
+        return Multi.createFrom().iterable(items)
+                .onItem().transformToUniAndMerge(item -> test.apply(item).onFailure().recoverWithItem(Boolean.FALSE))
+                .select().where(Boolean.TRUE::equals)
+                .toUni()
+                .map(granted -> granted != null);
+    }
+
+    public static final class Builder {
+
+        private final List<Requirement> requirements = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Requires an identity that is not anonymous, see {@link Authenticated}.
+         *
+         * @return this builder
+         */
+        public Builder authenticated() {
+            requirements.add(new AuthenticatedRequirement());
+            return this;
+        }
+
+        /**
+         * Requires at least one of the roles.
+         *
+         * @param roles The allowed roles
+         * @return this builder
+         */
+        public Builder rolesAllowed(String... roles) {
+            requirements.add(new RolesRequirement(roles.clone()));
+            return this;
+        }
+
+        /**
+         * Adds the requirement of one {@link PermissionsAllowed} annotation whose permissions do not depend on the
+         * method arguments.
+         *
+         * @param inclusive true if all the permissions are required, false if one of them is enough,
+         *        see {@link PermissionsAllowed#inclusive()}
+         * @param permissions The required permissions
+         * @return this builder
+         */
+        public Builder permissionsAllowed(boolean inclusive, Permission... permissions) {
+            List<Function<Object[], ? extends Permission>> factories = new ArrayList<>(permissions.length);
+            for (Permission permission : permissions) {
+                factories.add(arguments -> permission);
+            }
+            return permissionsAllowed(inclusive, factories);
+        }
+
+        /**
+         * Adds the requirement of one {@link PermissionsAllowed} annotation.
+         *
+         * @param inclusive true if all the permissions are required, false if one of them is enough,
+         *        see {@link PermissionsAllowed#inclusive()}
+         * @param permissionFactories create the required permissions from the secured method arguments,
+         *        see {@link PermissionsAllowed#params()}
+         * @return this builder
+         */
+        public Builder permissionsAllowed(boolean inclusive,
+                List<Function<Object[], ? extends Permission>> permissionFactories) {
+            return permissionsAllowed(inclusive, permissionFactories, List.of(), List.of());
+        }
+
+        /**
+         * Adds the requirement of one {@link PermissionsAllowed} annotation whose permissions are partly granted by
+         * the {@link PermissionChecker} methods. Every checker stands for the permission with the same name, so the
+         * checkers and the permissions are combined exactly like the permissions are: if the requirement is not
+         * inclusive, the first granted permission or checker grants the access.
+         *
+         * @param inclusive true if all the permissions are required, false if one of them is enough,
+         *        see {@link PermissionsAllowed#inclusive()}
+         * @param permissionFactories create the required permissions that are not granted by a checker
+         * @param checks the {@link PermissionChecker} methods that return {@code boolean}
+         * @param asyncChecks the {@link PermissionChecker} methods that return {@code Uni<Boolean>}
+         * @return this builder
+         */
+        public Builder permissionsAllowed(boolean inclusive,
+                List<Function<Object[], ? extends Permission>> permissionFactories,
+                List<BiPredicate<SecurityIdentity, Object[]>> checks,
+                List<BiFunction<SecurityIdentity, Object[], Uni<Boolean>>> asyncChecks) {
+            requirements.add(new PermissionsRequirement(inclusive, new ArrayList<>(permissionFactories),
+                    new ArrayList<>(checks), new ArrayList<>(asyncChecks)));
+            return this;
+        }
+
+        /**
+         * Adds a synchronous check that must pass independently of all the other requirements. The
+         * {@link PermissionChecker} methods must be added with the
+         * {@link #permissionsAllowed(boolean, List, List, List)} method instead, because they only grant one of
+         * the permissions of their {@link PermissionsAllowed} annotation.
+         *
+         * @param check tests the current identity and the secured method arguments
+         * @return this builder
+         */
+        public Builder check(BiPredicate<SecurityIdentity, Object[]> check) {
+            requirements.add(new CheckRequirement(check));
+            return this;
+        }
+
+        /**
+         * Adds an asynchronous check that must pass independently of all the other requirements. The
+         * {@link PermissionChecker} methods must be added with the
+         * {@link #permissionsAllowed(boolean, List, List, List)} method instead.
+         *
+         * @param check tests the current identity and the secured method arguments
+         * @return this builder
+         */
+        public Builder checkAsync(BiFunction<SecurityIdentity, Object[], Uni<Boolean>> check) {
+            requirements.add(new AsyncCheckRequirement(check));
+            return this;
+        }
+
+        /**
+         * Denies the access to everyone.
+         *
+         * @return this builder
+         */
+        public Builder denyAll() {
+            requirements.add(new DenyAllRequirement());
+            return this;
+        }
+
+        public AuthorizationPlan build() {
+            return new AuthorizationPlan(requirements);
+        }
+    }
+
+    private abstract static class Requirement {
+
+        /**
+         * Relative cost of the synchronous test. Requirements are tested from the cheapest one.
+         */
+        private final int cost;
+
+        private Requirement(int cost) {
+            this.cost = cost;
+        }
+
+        /**
+         * Runs the synchronous part of the test. The returned {@link Uni} is only subscribed to when all
+         * the synchronous tests have passed.
+         *
+         * @return {@link #GRANTED} or {@link #DENIED} if the requirement is decided synchronously, otherwise the Uni
+         *         that decides the requirement
+         */
+        abstract Uni<Boolean> test(SecurityIdentity identity, Object[] arguments);
+
+        static Uni<Boolean> decision(boolean granted) {
+            return granted ? GRANTED : DENIED;
+        }
+    }
+
+    private static final class DenyAllRequirement extends Requirement {
+
+        private DenyAllRequirement() {
+            super(0);
+        }
+
+        @Override
+        Uni<Boolean> test(SecurityIdentity identity, Object[] arguments) {
+            return DENIED;
+        }
+
+        @Override
+        public String toString() {
+            return "deny all";
+        }
+    }
+
+    private static final class AuthenticatedRequirement extends Requirement {
+
+        private AuthenticatedRequirement() {
+            super(1);
+        }
+
+        @Override
+        Uni<Boolean> test(SecurityIdentity identity, Object[] arguments) {
+            return decision(!identity.isAnonymous());
+        }
+
+        @Override
+        public String toString() {
+            return "authenticated";
+        }
+    }
+
+    private static final class RolesRequirement extends Requirement {
+
+        private final String[] roles;
+
+        private RolesRequirement(String[] roles) {
+            super(2);
+            this.roles = roles;
+        }
+
+        @Override
+        Uni<Boolean> test(SecurityIdentity identity, Object[] arguments) {
+            for (String role : roles) {
+                if (identity.hasRole(role)) {
+                    return GRANTED;
+                }
+            }
+            return DENIED;
+        }
+
+        @Override
+        public String toString() {
+            return "any role of " + Arrays.toString(roles);
+        }
+    }
+
+    private static final class CheckRequirement extends Requirement {
+
+        private final BiPredicate<SecurityIdentity, Object[]> check;
+
+        private CheckRequirement(BiPredicate<SecurityIdentity, Object[]> check) {
+            super(3);
+            this.check = check;
+        }
+
+        @Override
+        Uni<Boolean> test(SecurityIdentity identity, Object[] arguments) {
+            try {
+                return decision(check.test(identity, arguments));
+            } catch (RuntimeException e) {
+                // a failed check is a denied check
+                return DENIED;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "check";
+        }
+    }
+
+    private static final class PermissionsRequirement extends Requirement {
+
+        private final boolean inclusive;
+        private final List<Function<Object[], ? extends Permission>> permissionFactories;
+        private final List<BiPredicate<SecurityIdentity, Object[]>> checks;
+        private final List<BiFunction<SecurityIdentity, Object[], Uni<Boolean>>> asyncChecks;
+
+        private PermissionsRequirement(boolean inclusive, List<Function<Object[], ? extends Permission>> factories,
+                List<BiPredicate<SecurityIdentity, Object[]>> checks,
+                List<BiFunction<SecurityIdentity, Object[], Uni<Boolean>>> asyncChecks) {
+            super(4);
+            this.inclusive = inclusive;
+            this.permissionFactories = Collections.unmodifiableList(factories);
+            this.checks = Collections.unmodifiableList(checks);
+            this.asyncChecks = Collections.unmodifiableList(asyncChecks);
+        }
+
+        @Override
+        Uni<Boolean> test(SecurityIdentity identity, Object[] arguments) {
+            for (BiPredicate<SecurityIdentity, Object[]> check : checks) {
+                boolean granted;
+                try {
+                    granted = check.test(identity, arguments);
+                } catch (RuntimeException e) {
+                    // a failed check is a denied check
+                    granted = false;
+                }
+                if (granted != inclusive) {
+                    // the first granted permission of a non-inclusive requirement, or a denied one of an inclusive
+                    return decision(granted);
+                }
+            }
+            // every permission is created once, only the unresolved ones are checked asynchronously
+            List<Uni<Boolean>> undecided = null;
+            for (Function<Object[], ? extends Permission> factory : permissionFactories) {
+                Permission permission;
+                try {
+                    permission = factory.apply(arguments);
+                } catch (RuntimeException e) {
+                    // a permission that can not be created is a denied permission
+                    if (inclusive) {
+                        return DENIED;
+                    }
+                    continue;
+                }
+                if (!isResolved(identity, permission)) {
+                    if (undecided == null) {
+                        undecided = new ArrayList<>(permissionFactories.size() + asyncChecks.size());
+                    }
+                    undecided.add(Uni.createFrom().deferred(() -> identity.checkPermission(permission)));
+                } else if (!inclusive) {
+                    return GRANTED;
+                }
+            }
+            for (BiFunction<SecurityIdentity, Object[], Uni<Boolean>> check : asyncChecks) {
+                if (undecided == null) {
+                    undecided = new ArrayList<>(asyncChecks.size());
+                }
+                undecided.add(Uni.createFrom().deferred(() -> check.apply(identity, arguments)));
+            }
+            if (undecided == null) {
+                // all the permissions and checks are decided, or there are none
+                return decision(inclusive);
+            }
+            if (inclusive) {
+                return allGranted(undecided, Function.identity());
+            }
+            return anyGranted(undecided, Function.identity());
+        }
+
+        private static boolean isResolved(SecurityIdentity identity, Permission required) {
+            for (Permission possessed : identity.getPermissions()) {
+                if (possessed.implies(required)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return (inclusive ? "all " : "any ") + (permissionFactories.size() + checks.size() + asyncChecks.size())
+                    + " permissions";
+        }
+    }
+
+    private static final class AsyncCheckRequirement extends Requirement {
+
+        private final BiFunction<SecurityIdentity, Object[], Uni<Boolean>> check;
+
+        private AsyncCheckRequirement(BiFunction<SecurityIdentity, Object[], Uni<Boolean>> check) {
+            super(5);
+            this.check = check;
+        }
+
+        @Override
+        Uni<Boolean> test(SecurityIdentity identity, Object[] arguments) {
+            return Uni.createFrom().deferred(() -> check.apply(identity, arguments));
+        }
+
+        @Override
+        public String toString() {
+            return "async check";
+        }
+    }
+}
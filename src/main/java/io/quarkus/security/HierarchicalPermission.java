@@ -0,0 +1,240 @@
+package io.quarkus.security;
+
+import java.security.Permission;
+import java.security.PermissionCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Represents permission whose name is a path of segments separated with the {@link #SEGMENT_SEPARATOR}, such as
+ * {@code tenant/a/orders}. The last segment can be the {@link #WILDCARD}, in which case the permission grants
+ * access to the whole subtree. For example, the {@code tenant/a/*} permission implies both the {@code tenant/a/orders}
+ * and the {@code tenant/a/orders/123} permissions, but not the {@code tenant/a} permission.
+ * <p>
+ * The {@link #WILDCARD} can also be used as an action, in which case the permission grants all the actions. For example,
+ * the permission created for the {@code @PermissionsAllowed(value = "orders:*", permission = HierarchicalPermission.class)}
+ * annotation implies the {@code orders:read} and {@code orders:write} permissions.
+ * <p>
+ * Permissions held by an identity should be compiled with the {@link #compile(Collection)} method. The compiled
+ * collection stores the permissions in a prefix tree, therefore checking whether the collection implies a permission
+ * only depends on the number of segments of the checked permission, and the wildcard permissions do not need to be
+ * expanded in advance.
+ *
+ * @see StringPermission
+ */
+public final class HierarchicalPermission extends Permission {
+
+    public static final String SEGMENT_SEPARATOR = "/";
+    public static final String WILDCARD = "*";
+    private final String[] nameSegments;
+    private final String[] segments;
+    private final boolean subtree;
+    private final Set<String> actions;
+
+    /**
+     * Constructs a permission with the specified name and actions.
+     *
+     * @param permissionName must not be null or empty, must not contain comma and must not contain empty segments;
+     *        only the last segment can be the {@link #WILDCARD}
+     * @param actions optional actions; action itself must not be null or empty and must not contain comma
+     */
+    public HierarchicalPermission(String permissionName, String... actions) {
+        super(PermissionActions.validateAndTrim(permissionName, "Permission name"));
+        String[] allSegments = splitSegments(getName());
+        if (allSegments == null) {
+            throw new IllegalArgumentException(
+                    String.format("Permission name '%s' must not contain empty segments", getName()));
+        }
+        for (int i = 0; i < allSegments.length - 1; i++) {
+            if (WILDCARD.equals(allSegments[i])) {
+                throw new IllegalArgumentException(
+                        String.format("Only the last permission name segment can be '%s'", WILDCARD));
+            }
+        }
+        this.nameSegments = allSegments;
+        this.subtree = WILDCARD.equals(allSegments[allSegments.length - 1]);
+        this.segments = subtree ? Arrays.copyOf(allSegments, allSegments.length - 1) : allSegments;
+        if (actions != null && actions.length != 0) { // OPTIONAL
+            this.actions = PermissionActions.checkActions(actions);
+        } else {
+            this.actions = Collections.emptySet();
+        }
+    }
+
+    /**
+     * Compiles permissions into a read-only {@link PermissionCollection} that is suitable for repeated
+     * {@link PermissionCollection#implies(Permission)} checks.
+     *
+     * @param permissions permissions held by an identity
+     * @return read-only permission collection
+     */
+    public static PermissionCollection compile(Collection<HierarchicalPermission> permissions) {
+        PermissionCollection collection = new HierarchicalPermissionCollection();
+        for (HierarchicalPermission permission : permissions) {
+            collection.add(permission);
+        }
+        collection.setReadOnly();
+        return collection;
+    }
+
+    /**
+     * Checks if this HierarchicalPermission object "implies" the specified permission.
+     * <p>
+     * More precisely, this method returns true if:
+     * <ul>
+     * <li> {@code p} is an instance of the HierarchicalPermission or the {@link StringPermission}
+     * <li> {@code p}'s name equals this object's name, or this object's name ends with the {@link #WILDCARD}
+     * and the {@code p}'s name starts with the segments that precede the wildcard
+     * <li> compared permissions have no actions, this object's actions contains the {@link #WILDCARD}, or this object's
+     * actions contains at least one of the {@code p} actions
+     * </ul>
+     *
+     * @param p the permission to check against
+     *
+     * @return true if the specified permission is implied by this object
+     */
+    @Override
+    public boolean implies(Permission p) {
+        if (!(p instanceof HierarchicalPermission) && !(p instanceof StringPermission)) {
+            return false;
+        }
+        return impliesName(p.getName()) && impliesActions(actions, requiredActions(p));
+    }
+
+    /**
+     * Walks the name segments in place, so that checking a {@link StringPermission} does not split its name.
+     */
+    private boolean impliesName(String name) {
+        int position = 0;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (!name.startsWith(segment, position)) {
+                return false;
+            }
+            position += segment.length();
+            if (subtree || i < segments.length - 1) {
+                if (!name.startsWith(SEGMENT_SEPARATOR, position)) {
+                    return false;
+                }
+                position += SEGMENT_SEPARATOR.length();
+            }
+        }
+        if (!subtree) {
+            return position == name.length();
+        }
+        // at least one more segment, and no empty segments
+        if (position == name.length() || name.endsWith(SEGMENT_SEPARATOR)) {
+            return false;
+        }
+        for (int i = name.indexOf(SEGMENT_SEPARATOR, position); i >= 0; i = name.indexOf(SEGMENT_SEPARATOR, i + 1)) {
+            if (i == position || name.startsWith(SEGMENT_SEPARATOR, i + SEGMENT_SEPARATOR.length())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object p) {
+        if (this == p) {
+            return true;
+        }
+        if (!(p instanceof HierarchicalPermission)) {
+            return false;
+        }
+        HierarchicalPermission that = (HierarchicalPermission) p;
+        return getName().equals(that.getName()) && actions.equals(that.actions);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getName().hashCode();
+        result = 31 * result + actions.hashCode();
+        return result;
+    }
+
+    /**
+     * @return null if no actions were specified, or actions joined together with the
+     *         {@link StringPermission#ACTIONS_SEPARATOR}
+     */
+    @Override
+    public String getActions() {
+        return actions.isEmpty() ? null : String.join(StringPermission.ACTIONS_SEPARATOR, actions);
+    }
+
+    @Override
+    public PermissionCollection newPermissionCollection() {
+        return new HierarchicalPermissionCollection();
+    }
+
+    /**
+     * @return name segments without the trailing {@link #WILDCARD}
+     */
+    String[] getSegments() {
+        return segments;
+    }
+
+    /**
+     * @return true if the last name segment is the {@link #WILDCARD}
+     */
+    boolean isSubtree() {
+        return subtree;
+    }
+
+    Set<String> getActionSet() {
+        return actions;
+    }
+
+    /**
+     * @param p the checked permission
+     * @return all name segments of the {@code p} including the {@link #WILDCARD}, or null if the {@code p} is not
+     *         a HierarchicalPermission or the {@link StringPermission} with a valid hierarchical name
+     */
+    static String[] requiredSegments(Permission p) {
+        if (p instanceof HierarchicalPermission) {
+            return ((HierarchicalPermission) p).nameSegments;
+        }
+        if (p instanceof StringPermission) {
+            return ((StringPermission) p).getSegments();
+        }
+        return null;
+    }
+
+    /**
+     * @param p the HierarchicalPermission or the {@link StringPermission}
+     * @return the parsed actions of the {@code p}
+     */
+    static Set<String> requiredActions(Permission p) {
+        if (p instanceof HierarchicalPermission) {
+            return ((HierarchicalPermission) p).actions;
+        }
+        return ((StringPermission) p).getActionSet();
+    }
+
+    static String[] splitSegments(String name) {
+        String[] result = name.split(SEGMENT_SEPARATOR, -1);
+        for (String segment : result) {
+            if (segment.isEmpty()) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    static boolean impliesActions(Set<String> possessed, Set<String> required) {
+        // actions are optional, however if at least one action was specified,
+        // an intersection of compared sets must not be empty
+        if (required.isEmpty() || possessed.contains(WILDCARD)) {
+            return true;
+        }
+        for (String action : required) {
+            if (possessed.contains(action)) {
+                // has at least one of required actions
+                return true;
+            }
+        }
+        return false;
+    }
+}
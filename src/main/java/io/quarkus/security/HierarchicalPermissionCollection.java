@@ -0,0 +1,132 @@
+package io.quarkus.security;
+
+import java.security.Permission;
+import java.security.PermissionCollection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PermissionCollection} of the {@link HierarchicalPermission}s stored in a prefix tree.
+ * Every tree node represents one permission name segment and holds actions granted for the node itself
+ * and actions granted for the whole subtree of the node.
+ */
+final class HierarchicalPermissionCollection extends PermissionCollection {
+
+    private final Node root = new Node();
+
+    @Override
+    public void add(Permission permission) {
+        if (!(permission instanceof HierarchicalPermission)) {
+            throw new IllegalArgumentException("Invalid permission: " + permission);
+        }
+        if (isReadOnly()) {
+            throw new SecurityException("Attempt to add a Permission to a readonly PermissionCollection");
+        }
+        HierarchicalPermission hierarchicalPermission = (HierarchicalPermission) permission;
+        synchronized (this) {
+            Node node = root;
+            for (String segment : hierarchicalPermission.getSegments()) {
+                node = node.getOrCreateChild(segment);
+            }
+            if (hierarchicalPermission.isSubtree()) {
+                node.subtreeActions = merge(node.subtreeActions, hierarchicalPermission.getActionSet());
+            } else {
+                node.actions = merge(node.actions, hierarchicalPermission.getActionSet());
+            }
+        }
+    }
+
+    @Override
+    public boolean implies(Permission permission) {
+        final String[] segments = HierarchicalPermission.requiredSegments(permission);
+        if (segments == null) {
+            return false;
+        }
+        final Set<String> requiredActions = HierarchicalPermission.requiredActions(permission);
+        Node node = root;
+        for (String segment : segments) {
+            Set<String> subtreeActions = node.subtreeActions;
+            if (subtreeActions != null && HierarchicalPermission.impliesActions(subtreeActions, requiredActions)) {
+                return true;
+            }
+            node = node.getChild(segment);
+            if (node == null) {
+                return false;
+            }
+        }
+        Set<String> actions = node.actions;
+        return actions != null && HierarchicalPermission.impliesActions(actions, requiredActions);
+    }
+
+    @Override
+    public Enumeration<Permission> elements() {
+        List<Permission> permissions = new ArrayList<>();
+        collect(root, null, permissions);
+        return Collections.enumeration(permissions);
+    }
+
+    private static void collect(Node node, String path, List<Permission> permissions) {
+        if (node.actions != null && path != null) {
+            permissions.add(new HierarchicalPermission(path, node.actions.toArray(new String[0])));
+        }
+        if (node.subtreeActions != null) {
+            String subtreePath = path == null ? HierarchicalPermission.WILDCARD
+                    : path + HierarchicalPermission.SEGMENT_SEPARATOR + HierarchicalPermission.WILDCARD;
+            permissions.add(new HierarchicalPermission(subtreePath, node.subtreeActions.toArray(new String[0])));
+        }
+        Map<String, Node> children = node.children;
+        if (children != null) {
+            for (Map.Entry<String, Node> child : children.entrySet()) {
+                String childPath = path == null ? child.getKey()
+                        : path + HierarchicalPermission.SEGMENT_SEPARATOR + child.getKey();
+                collect(child.getValue(), childPath, permissions);
+            }
+        }
+    }
+
+    private static Set<String> merge(Set<String> existing, Set<String> added) {
+        if (existing == null) {
+            return added;
+        }
+        if (existing.containsAll(added)) {
+            return existing;
+        }
+        Set<String> merged = new HashSet<>(existing);
+        merged.addAll(added);
+        return Collections.unmodifiableSet(merged);
+    }
+
+    private static final class Node {
+
+        /**
+         * Name segment to the child node; null until the first child is added.
+         */
+        private volatile Map<String, Node> children;
+        /**
+         * Actions granted for this node; null if this node itself is not granted.
+         */
+        private volatile Set<String> actions;
+        /**
+         * Actions granted for all the descendants of this node; null if no wildcard permission ends at this node.
+         */
+        private volatile Set<String> subtreeActions;
+
+        private Node getChild(String segment) {
+            Map<String, Node> children = this.children;
+            return children == null ? null : children.get(segment);
+        }
+
+        private Node getOrCreateChild(String segment) {
+            if (children == null) {
+                children = new ConcurrentHashMap<>(4);
+            }
+            return children.computeIfAbsent(segment, s -> new Node());
+        }
+    }
+}
@@ -14,6 +14,8 @@ import io.quarkus.security.identity.IdentityProvider;
  * attribute, which represents the underlying user representation. This representation will
  * depend on the underlying {@link IdentityProvider} that is in use, e.g. for a JPA based one
  * this will likely be a JPA entity representing the current user.
+ *
+ * Attributes provided as {@link io.quarkus.security.identity.LazyAttribute} are resolved when they are injected.
  */
 @Qualifier
 @Retention(RetentionPolicy.RUNTIME)
@@ -0,0 +1,38 @@
+package io.quarkus.security;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Validation of the names and actions shared by the {@link StringPermission} and the {@link HierarchicalPermission}.
+ */
+final class PermissionActions {
+
+    private PermissionActions() {
+    }
+
+    static Set<String> checkActions(String[] actions) {
+        Set<String> validActions = new HashSet<>(actions.length, 1);
+        for (String action : actions) {
+            validActions.add(validateAndTrim(action, "Action"));
+        }
+        return Collections.unmodifiableSet(validActions);
+    }
+
+    static String validateAndTrim(String str, String paramName) {
+        if (str == null) {
+            throw new IllegalArgumentException(String.format("%s must not be null", paramName));
+        }
+        str = str.trim();
+        if (str.isEmpty()) {
+            throw new IllegalArgumentException(String.format("%s must not be empty", paramName));
+        }
+        if (str.contains(StringPermission.ACTIONS_SEPARATOR)) {
+            // important for equals and hashCode
+            throw new IllegalArgumentException(
+                    String.format("%s must not contain '%s'", paramName, StringPermission.ACTIONS_SEPARATOR));
+        }
+        return str;
+    }
+}
@@ -75,6 +75,30 @@ import java.lang.annotation.Target;
  * }
  * </pre>
  * Note that a permission checker matches one of the {@link PermissionsAllowed} permissions if their String names are equal.
+ * <p>
+ * Permission checker methods can also be asynchronous and return {@code Uni<Boolean>}. This is useful when the decision
+ * requires a call to a remote resource, for example:
+ * <pre>
+ * {@code
+ * @PermissionChecker("read:all")
+ * public Uni<Boolean> canRead(SecurityIdentity identity, String a) {
+ *     return ownershipService.isOwner(identity.getPrincipal().getName(), a);
+ * }
+ * }
+ * </pre>
+ * When several asynchronous permission checkers are required to grant access to one secured method,
+ * they are not evaluated one after another. Instead, all of them are subscribed to concurrently:
+ * <ul>
+ * <li>If the {@link PermissionsAllowed#inclusive()} property is set to `true`, the access is denied as soon as the first
+ * checker resolves to `false`, and the remaining pending checkers are cancelled.</li>
+ * <li>Otherwise, the access is granted as soon as the first checker resolves to `true`, and the remaining pending checkers
+ * are cancelled.</li>
+ * </ul>
+ * A checker that fails is treated as if it resolved to `false`. Synchronous {@code boolean} checkers are evaluated
+ * before the asynchronous ones, so that the asynchronous checkers are not subscribed to at all if the synchronous ones
+ * already determined the outcome.
+ * <p>
+ * Results of the permission checker methods can be cached with the {@link PermissionCheckerCache} annotation.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -82,6 +106,7 @@ public @interface PermissionChecker {
 
     /**
      * Specifies a permission this checker grants.
+     * The annotated method must return either {@code boolean} or {@code Uni<Boolean>}.
      *
      * @see PermissionsAllowed#value()
      * @return name of the permission this checker grants
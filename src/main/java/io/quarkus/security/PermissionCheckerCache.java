@@ -0,0 +1,100 @@
+package io.quarkus.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Companion annotation of the {@link PermissionChecker} that enables caching of the permission checker results.
+ * By default, permission checker methods are invoked for every secured method invocation. When the decision only
+ * depends on the current identity and some of the permission checker method parameters, results can be served
+ * from a bounded in-memory cache instead. For example:
+ * <pre>
+ * {@code
+ * @PermissionsAllowed("read")
+ * public Order getOrder(String orderId, boolean detailed) {
+ *     ...
+ * }
+ *
+ * @PermissionCheckerCache(key = "orderId", expireAfterWrite = 5, timeUnit = ChronoUnit.MINUTES)
+ * @PermissionChecker("read")
+ * public boolean canRead(SecurityIdentity identity, String orderId) {
+ *     return orderService.isOwner(identity.getPrincipal().getName(), orderId);
+ * }
+ * }
+ * </pre>
+ * The cache key always contains the {@link java.security.Principal#getName()} and the
+ * {@link io.quarkus.security.identity.SecurityIdentity#getRoles()} of the current identity, followed by the values of
+ * the identity attributes listed in the {@link #identityAttributes()} and the values of the permission checker method
+ * parameters listed in the {@link #key()}. Therefore, two invocations of the {@code getOrder} method by the same user
+ * with the same roles and the same {@code orderId} will only invoke the {@code canRead} permission checker once within
+ * the 5 minutes interval, regardless of the {@code detailed} parameter value.
+ * <p>
+ * Please note that:
+ * <ul>
+ * <li>A cached permission checker must only depend on the parts of the identity that form the cache key. For example,
+ * if the identities of several tenants can have the same principal name, the identity attribute that contains the
+ * tenant id must be listed in the {@link #identityAttributes()}.</li>
+ * <li>Values of the parameters that form the cache key must implement {@link Object#equals(Object)} and
+ * {@link Object#hashCode()}.</li>
+ * <li>Results of the permission checks performed for anonymous identities are never cached.</li>
+ * <li>If the permission checker returns {@code Uni<Boolean>}, the resolved value is cached and failures are not cached.</li>
+ * <li>Cached results are evicted before they expire when the
+ * {@link io.quarkus.security.identity.cache.InvalidationBus} delivers a principal name event for the identity,
+ * a role event for one of the identity roles, a permission name event for the permission checker
+ * {@link PermissionChecker#value()}, or an event that invalidates everything.</li>
+ * </ul>
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PermissionCheckerCache {
+
+    /**
+     * Names of the permission checker method parameters that form the cache key together with the principal name,
+     * the roles and the {@link #identityAttributes()}.
+     * Parameter fields or methods can be referenced exactly the same way as with the {@link PermissionsAllowed#params()},
+     * for example {@code "order.id"}. The {@link io.quarkus.security.identity.SecurityIdentity} parameter can not be
+     * referenced.
+     * <p>
+     * By default, all the permission checker method parameters except for the
+     * {@link io.quarkus.security.identity.SecurityIdentity} form the cache key.
+     *
+     * @return permission checker method parameters that form the cache key
+     */
+    String[] key() default {};
+
+    /**
+     * Names of the {@link io.quarkus.security.identity.SecurityIdentity#getAttributes()} that form the cache key
+     * together with the principal name and the roles, for example the attribute that contains the tenant id.
+     * Values of the attributes must implement {@link Object#equals(Object)} and {@link Object#hashCode()}.
+     *
+     * @return identity attributes that form the cache key
+     */
+    String[] identityAttributes() default {};
+
+    /**
+     * Specifies how long a cached permission checker result remains valid after it was computed.
+     *
+     * @see #timeUnit()
+     * @return time the cached result remains valid
+     */
+    long expireAfterWrite() default 60;
+
+    /**
+     * @return time unit of the {@link #expireAfterWrite()}
+     */
+    ChronoUnit timeUnit() default ChronoUnit.SECONDS;
+
+    /**
+     * Specifies maximum number of results cached for the annotated permission checker.
+     * When the maximum size is reached, the least recently used results are evicted.
+     *
+     * @return maximum number of cached results
+     */
+    int maximumSize() default 1000;
+
+}
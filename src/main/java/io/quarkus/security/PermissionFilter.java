@@ -0,0 +1,186 @@
+package io.quarkus.security;
+
+import java.security.Permission;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Streaming operator that only emits the items of a {@link Multi} whose permission is granted to the identity, for
+ * example to filter the rows of a large export by their access control lists:
+ * <pre>
+ * {@code
+ * Multi<Row> permittedRows = rows.plug(PermissionFilter
+ *         .builder(identity, (Row row) -> new StringPermission("row", row.id()))
+ *         .windowSize(512)
+ *         .build());
+ * }
+ * </pre>
+ * Instead of one permission check per item, items are grouped into windows of the configured size. The distinct
+ * permissions of every window are checked with a single
+ * {@link SecurityIdentity#checkPermissions(java.util.Collection, int)} invocation, and the permitted items of the
+ * window are then emitted in the original order. The permissions are only checked together if the identity overrides
+ * that method, for example to check them with a single remote call. Otherwise, every distinct permission is checked
+ * with the {@link SecurityIdentity#checkPermission(Permission)}, and at most {@link Builder#concurrency(int)} checks
+ * are in progress at once.
+ * <p>
+ * Windows are processed one after another, and the next window is only requested when the downstream has requested
+ * more items, so the operator respects the backpressure and keeps at most one window in memory. When the
+ * {@link Builder#maxWindowDelay(Duration)} is set, windows are also emitted when the delay elapses, regardless of
+ * the downstream requests, so up to {@link Builder#maxPendingWindows(int)} windows wait while the permissions of
+ * the current window are checked, and the stream fails with the
+ * {@link io.smallrye.mutiny.subscription.BackPressureFailure} if more windows are pending.
+ * <p>
+ * A permission check that fails is considered denied, and items mapped to a null permission are never emitted.
+ *
+ * @param <T> The item type
+ */
+public final class PermissionFilter<T> implements Function<Multi<T>, Multi<T>> {
+
+    private final SecurityIdentity identity;
+    private final Function<? super T, ? extends Permission> permissionMapper;
+    private final int windowSize;
+    private final Duration maxWindowDelay;
+    private final int maxPendingWindows;
+    private final int concurrency;
+
+    private PermissionFilter(Builder<T> builder) {
+        this.identity = builder.identity;
+        this.permissionMapper = builder.permissionMapper;
+        this.windowSize = builder.windowSize;
+        this.maxWindowDelay = builder.maxWindowDelay;
+        this.maxPendingWindows = builder.maxPendingWindows;
+        this.concurrency = builder.concurrency;
+    }
+
+    /**
+     * @param identity The identity whose permissions are checked
+     * @param permissionMapper maps the item to the permission that is required to emit it
+     * @param <T> The item type
+     * @return The builder
+     */
+    public static <T> Builder<T> builder(SecurityIdentity identity,
+            Function<? super T, ? extends Permission> permissionMapper) {
+        return new Builder<>(identity, permissionMapper);
+    }
+
+    @Override
+    public Multi<T> apply(Multi<T> upstream) {
+        final Multi<List<T>> windows = maxWindowDelay == null ? upstream.group().intoLists().of(windowSize)
+                // timed windows are emitted without requests, they must wait until the current window is checked
+                : upstream.group().intoLists().of(windowSize, maxWindowDelay).onOverflow().buffer(maxPendingWindows);
+        return windows.onItem().transformToUni(this::filterWindow).concatenate()
+                .onItem().transformToIterable(Function.identity());
+    }
+
+    private Uni<List<T>> filterWindow(List<T> window) {
+        final Permission[] permissions = new Permission[window.size()];
+        final Map<Permission, Boolean> decisions = new HashMap<>();
+        for (int i = 0; i < permissions.length; i++) {
+            Permission permission = permissionMapper.apply(window.get(i));
+            permissions[i] = permission;
+            if (permission != null) {
+                decisions.putIfAbsent(permission, Boolean.FALSE);
+            }
+        }
+        if (decisions.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        return Uni.createFrom().deferred(() -> identity.checkPermissions(List.copyOf(decisions.keySet()), concurrency))
+                .onFailure().recoverWithItem(Set.of())
+                .map(granted -> {
+                    for (Permission permission : granted) {
+                        decisions.replace(permission, Boolean.TRUE);
+                    }
+                    return select(window, permissions, decisions);
+                });
+    }
+
+    private static <T> List<T> select(List<T> window, Permission[] permissions, Map<Permission, Boolean> decisions) {
+        List<T> permitted = new ArrayList<>(window.size());
+        for (int i = 0; i < permissions.length; i++) {
+            if (permissions[i] != null && decisions.get(permissions[i])) {
+                permitted.add(window.get(i));
+            }
+        }
+        return permitted;
+    }
+
+    public static final class Builder<T> {
+
+        private final SecurityIdentity identity;
+        private final Function<? super T, ? extends Permission> permissionMapper;
+        private int windowSize = 256;
+        private Duration maxWindowDelay;
+        private int maxPendingWindows = 64;
+        private int concurrency = 16;
+
+        private Builder(SecurityIdentity identity, Function<? super T, ? extends Permission> permissionMapper) {
+            this.identity = Objects.requireNonNull(identity);
+            this.permissionMapper = Objects.requireNonNull(permissionMapper);
+        }
+
+        /**
+         * @param windowSize maximum number of items whose permissions are checked together, 256 by default
+         * @return this builder
+         */
+        public Builder<T> windowSize(int windowSize) {
+            if (windowSize < 1) {
+                throw new IllegalArgumentException(String.format("Invalid window size %d", windowSize));
+            }
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * @param maxWindowDelay maximum time to wait for a window to fill up before its items are checked, so that
+         *        slow streams are not delayed, by default windows are only emitted when they are full or the stream
+         *        completes
+         * @return this builder
+         */
+        public Builder<T> maxWindowDelay(Duration maxWindowDelay) {
+            this.maxWindowDelay = maxWindowDelay;
+            return this;
+        }
+
+        /**
+         * @param maxPendingWindows maximum number of windows emitted after the {@link #maxWindowDelay(Duration)}
+         *        that wait while the permissions of the current window are checked, 64 by default
+         * @return this builder
+         */
+        public Builder<T> maxPendingWindows(int maxPendingWindows) {
+            if (maxPendingWindows < 1) {
+                throw new IllegalArgumentException(
+                        String.format("Invalid maximum pending windows %d", maxPendingWindows));
+            }
+            this.maxPendingWindows = maxPendingWindows;
+            return this;
+        }
+
+        /**
+         * @param concurrency maximum number of concurrent {@link SecurityIdentity#checkPermission(Permission)}
+         *        invocations per window when the identity does not check the permissions together, 16 by default
+         * @return this builder
+         */
+        public Builder<T> concurrency(int concurrency) {
+            if (concurrency < 1) {
+                throw new IllegalArgumentException(String.format("Invalid concurrency %d", concurrency));
+            }
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public PermissionFilter<T> build() {
+            return new PermissionFilter<>(this);
+        }
+    }
+}
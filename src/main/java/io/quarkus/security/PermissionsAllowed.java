@@ -10,6 +10,8 @@ import java.security.Permission;
 
 /**
  * Lists one or more required permissions that must be granted.
+ *
+ * @see AuthorizationPlan
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
@@ -2,18 +2,23 @@ package io.quarkus.security;
 
 import java.security.Permission;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Represents permission based on simple string comparison.
  *
  * @see Permission
+ * @see HierarchicalPermission
  */
 public final class StringPermission extends Permission {
 
     public static final String ACTIONS_SEPARATOR = ",";
+    private static final String[] INVALID_SEGMENTS = new String[0];
     private final Set<String> actions;
+    /**
+     * Name segments used by the {@link HierarchicalPermissionCollection}, split on the first check.
+     */
+    private transient volatile String[] segments;
 
     /**
      * Constructs a permission with the specified name and actions.
@@ -22,37 +27,14 @@ public final class StringPermission extends Permission {
      * @param actions optional actions; action itself must not be null or empty and must not contain comma
      */
     public StringPermission(String permissionName, String... actions) {
-        super(validateAndTrim(permissionName, "Permission name"));
+        super(PermissionActions.validateAndTrim(permissionName, "Permission name"));
         if (actions != null && actions.length != 0) { // OPTIONAL
-            this.actions = checkActions(actions);
+            this.actions = PermissionActions.checkActions(actions);
         } else {
             this.actions = Collections.emptySet();
         }
     }
 
-    private static Set<String> checkActions(String[] actions) {
-        Set<String> validActions = new HashSet<>(actions.length, 1);
-        for (String action : actions) {
-            validActions.add(validateAndTrim(action, "Action"));
-        }
-        return Collections.unmodifiableSet(validActions);
-    }
-
-    private static String validateAndTrim(String str, String paramName) {
-        if (str == null) {
-            throw new IllegalArgumentException(String.format("%s must not be null", paramName));
-        }
-        str = str.trim();
-        if (str.isEmpty()) {
-            throw new IllegalArgumentException(String.format("%s must not be empty", paramName));
-        }
-        if (str.contains(ACTIONS_SEPARATOR)) {
-            // important for equals and hashCode
-            throw new IllegalArgumentException(String.format("%s must not contain '%s'", paramName, ACTIONS_SEPARATOR));
-        }
-        return str;
-    }
-
     /**
      * Checks if this StringPermission object "implies" the specified permission.
      * <p>
@@ -120,4 +102,21 @@ public final class StringPermission extends Permission {
         return actions.isEmpty() ? null : String.join(ACTIONS_SEPARATOR, actions);
     }
 
+    Set<String> getActionSet() {
+        return actions;
+    }
+
+    /**
+     * @return name segments split with the {@link HierarchicalPermission#SEGMENT_SEPARATOR}, or null if the name
+     *         contains empty segments
+     */
+    String[] getSegments() {
+        String[] result = segments;
+        if (result == null) {
+            result = HierarchicalPermission.splitSegments(getName());
+            segments = result == null ? INVALID_SEGMENTS : result;
+        }
+        return result == INVALID_SEGMENTS ? null : result;
+    }
+
 }
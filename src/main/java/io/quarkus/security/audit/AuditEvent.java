@@ -0,0 +1,107 @@
+package io.quarkus.security.audit;
+
+import io.quarkus.security.metrics.SecurityMetrics.Outcome;
+
+/**
+ * Audit event read from the audit log file by the {@link AuditLogReader}.
+ */
+public final class AuditEvent {
+
+    public enum Type {
+        AUTHENTICATION,
+        AUGMENTATION,
+        PERMISSION_CHECK
+    }
+
+    private final Type type;
+    private final long timestamp;
+    private final Outcome outcome;
+    private final String principalName;
+    private final String source;
+    private final String requestType;
+    private final String permissionName;
+    private final String permissionActions;
+
+    AuditEvent(Type type, long timestamp, Outcome outcome, String principalName, String source, String requestType,
+            String permissionName, String permissionActions) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.outcome = outcome;
+        this.principalName = principalName;
+        this.source = source;
+        this.requestType = requestType;
+        this.permissionName = permissionName;
+        this.permissionActions = permissionActions;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return time of the decision in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return The principal name, or null if it is not known
+     */
+    public String getPrincipalName() {
+        return principalName;
+    }
+
+    /**
+     * @return The identity provider or augmentor class name, or null for the permission checks
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return The authentication request class name, or null if this is not an authentication event
+     */
+    public String getRequestType() {
+        return requestType;
+    }
+
+    /**
+     * @return The permission name, or null if this is not a permission check event
+     */
+    public String getPermissionName() {
+        return permissionName;
+    }
+
+    /**
+     * @return The permission actions, or null if this is not a permission check event or the permission has no actions
+     */
+    public String getPermissionActions() {
+        return permissionActions;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder().append(timestamp).append(' ').append(type).append(' ').append(outcome);
+        if (principalName != null) {
+            sb.append(" principal=").append(principalName);
+        }
+        if (source != null) {
+            sb.append(" source=").append(source);
+        }
+        if (requestType != null) {
+            sb.append(" request=").append(requestType);
+        }
+        if (permissionName != null) {
+            sb.append(" permission=").append(permissionName);
+            if (permissionActions != null) {
+                sb.append(':').append(permissionActions);
+            }
+        }
+        return sb.toString();
+    }
+}
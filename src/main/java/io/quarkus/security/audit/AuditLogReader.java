@@ -0,0 +1,133 @@
+package io.quarkus.security.audit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import io.quarkus.security.metrics.SecurityMetrics.Outcome;
+
+/**
+ * Reads the audit log files written by the {@link RingBufferSecurityAuditor}.
+ */
+public final class AuditLogReader {
+
+    private static final AuditEvent.Type[] TYPES = AuditEvent.Type.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private AuditLogReader() {
+    }
+
+    /**
+     * Reads all the events of the audit log file, in the order they were written. Files that were not closed properly
+     * can be read as well, up to the last complete event.
+     *
+     * @param file The audit log file
+     * @param consumer receives the events
+     * @throws IOException if the file can not be read or it is not an audit log file
+     */
+    public static void read(Path file, Consumer<AuditEvent> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            byte[] magic = new byte[AuditLogWriter.MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, AuditLogWriter.MAGIC)) {
+                throw new IOException("Not an audit log file: " + file);
+            }
+            byte version = in.readByte();
+            if (version != AuditLogWriter.VERSION) {
+                throw new IOException("Unsupported audit log version: " + version);
+            }
+            List<String> dictionary = new ArrayList<>();
+            long timestamp = 0;
+            while (true) {
+                int type = in.read();
+                if (type <= 0) {
+                    // end of the file, or the unused part of the last mapped region
+                    return;
+                }
+                AuditEvent event;
+                try {
+                    if (type > TYPES.length) {
+                        throw new IOException("Unknown audit event type: " + type);
+                    }
+                    int outcome = in.readUnsignedByte();
+                    if (outcome >= OUTCOMES.length) {
+                        throw new IOException("Unknown audit event outcome: " + outcome);
+                    }
+                    long delta = readVarLong(in);
+                    timestamp += (delta >>> 1) ^ -(delta & 1);
+                    String principalName = readString(in, dictionary);
+                    switch (TYPES[type - 1]) {
+                        case AUTHENTICATION:
+                            event = new AuditEvent(AuditEvent.Type.AUTHENTICATION, timestamp, OUTCOMES[outcome],
+                                    principalName, readString(in, dictionary), readString(in, dictionary), null, null);
+                            break;
+                        case AUGMENTATION:
+                            event = new AuditEvent(AuditEvent.Type.AUGMENTATION, timestamp, OUTCOMES[outcome],
+                                    principalName, readString(in, dictionary), null, null, null);
+                            break;
+                        default:
+                            String permissionName = readString(in, dictionary);
+                            String actions = readString(in, dictionary);
+                            event = new AuditEvent(AuditEvent.Type.PERMISSION_CHECK, timestamp, OUTCOMES[outcome],
+                                    principalName, null, null, permissionName, actions == null || actions.isEmpty() ? null
+                                            : actions);
+                    }
+                } catch (EOFException e) {
+                    // the last event was not written completely
+                    return;
+                }
+                consumer.accept(event);
+            }
+        }
+    }
+
+    private static String readString(DataInputStream in, List<String> dictionary) throws IOException {
+        long reference = readVarLong(in);
+        if (reference == AuditLogWriter.NULL_STRING) {
+            return null;
+        }
+        if (reference == AuditLogWriter.NEW_STRING) {
+            long length = readVarLong(in);
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Invalid audit log string length: " + length);
+            }
+            byte[] bytes = new byte[(int) length];
+            in.readFully(bytes);
+            String value = new String(bytes, UTF_8);
+            if (dictionary.size() < AuditLogWriter.MAX_DICTIONARY_SIZE) {
+                dictionary.add(value);
+            }
+            return value;
+        }
+        long index = reference - 2;
+        if (index >= dictionary.size()) {
+            throw new IOException("Invalid audit log string reference: " + reference);
+        }
+        return dictionary.get((int) index);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed audit log varint");
+    }
+}
@@ -0,0 +1,160 @@
+package io.quarkus.security.audit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.quarkus.security.metrics.SecurityMetrics.Outcome;
+
+/**
+ * Appends audit events to a memory-mapped file. The file starts with the {@link #MAGIC} bytes and the {@link #VERSION},
+ * followed by one record per event:
+ * <ul>
+ * <li>the {@link AuditEvent.Type} ordinal plus one, so that a zero byte marks the end of the records</li>
+ * <li>the {@link Outcome} ordinal</li>
+ * <li>the zigzag varint difference between the event timestamp and the previous event timestamp</li>
+ * <li>the principal name, then the source and the request type class names for authentication events, the source class
+ * name for augmentation events, or the permission name and actions for permission check events</li>
+ * </ul>
+ * Every string is written as a varint reference: 0 is null, 1 is followed by the varint length and the UTF-8 bytes
+ * of a new string, which is added to the string dictionary while it has less than {@link #MAX_DICTIONARY_SIZE}
+ * entries, and any other value is the dictionary index plus two. Principal names, class names and permission names
+ * repeat often, so most records only take a few bytes.
+ * <p>
+ * A record is encoded completely before it is appended, so an event that can not be encoded leaves neither a partial
+ * record nor a dictionary entry behind.
+ */
+final class AuditLogWriter implements Closeable {
+
+    static final byte[] MAGIC = { 'Q', 'S', 'A', 'L' };
+    static final byte VERSION = 1;
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+    static final int NULL_STRING = 0;
+    static final int NEW_STRING = 1;
+    private static final int REGION_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    /**
+     * New strings of the current record, added to the dictionary once the record is appended.
+     */
+    private final List<String> newStrings = new ArrayList<>();
+    private ByteBuffer record = ByteBuffer.allocate(4096);
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long lastTimestamp;
+
+    /**
+     * @param file The audit log file, which must not exist
+     */
+    AuditLogWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        map(0, REGION_SIZE);
+        region.put(MAGIC).put(VERSION);
+    }
+
+    void write(AuditEvent.Type type, long timestamp, Outcome outcome, String principalName, Class<?> source,
+            Class<?> requestType, Permission permission) throws IOException {
+        record.clear();
+        newStrings.clear();
+        record.put((byte) (type.ordinal() + 1));
+        record.put((byte) outcome.ordinal());
+        long delta = timestamp - lastTimestamp;
+        writeVarLong((delta << 1) ^ (delta >> 63));
+        writeString(principalName);
+        switch (type) {
+            case AUTHENTICATION:
+                writeString(source == null ? null : source.getName());
+                writeString(requestType == null ? null : requestType.getName());
+                break;
+            case AUGMENTATION:
+                writeString(source == null ? null : source.getName());
+                break;
+            default:
+                writeString(permission == null ? null : permission.getName());
+                writeString(permission == null ? null : permission.getActions());
+        }
+        record.flip();
+        if (region.remaining() < record.remaining()) {
+            map(regionStart + region.position(), Math.max(REGION_SIZE, record.remaining()));
+        }
+        region.put(record);
+        lastTimestamp = timestamp;
+        for (String newString : newStrings) {
+            dictionary.put(newString, dictionary.size());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            region.force();
+            // the last region is only partially used
+            channel.truncate(regionStart + region.position());
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void map(long position, int size) throws IOException {
+        if (region != null) {
+            region.force();
+        }
+        region = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        regionStart = position;
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writeVarLong(NULL_STRING);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarLong(index + 2L);
+            return;
+        }
+        int newIndex = newStrings.indexOf(value);
+        if (newIndex >= 0) {
+            writeVarLong(dictionary.size() + newIndex + 2L);
+            return;
+        }
+        if (dictionary.size() + newStrings.size() < MAX_DICTIONARY_SIZE) {
+            newStrings.add(value);
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        writeVarLong(NEW_STRING);
+        writeVarLong(bytes.length);
+        ensureCapacity(bytes.length);
+        record.put(bytes);
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            record.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        record.put((byte) value);
+    }
+
+    private void ensureCapacity(int length) {
+        if (record.remaining() < length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + length));
+            record.flip();
+            record = larger.put(record);
+        }
+    }
+}
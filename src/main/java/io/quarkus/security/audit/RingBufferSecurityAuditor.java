@@ -0,0 +1,261 @@
+package io.quarkus.security.audit;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.Permission;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import io.quarkus.security.identity.request.AuthenticationRequest;
+import io.quarkus.security.metrics.SecurityMetrics.Outcome;
+
+/**
+ * {@link SecurityAuditor} that keeps auditing off the request critical path. Request threads publish events into
+ * a pre-allocated lock-free ring buffer, without allocating, and a background thread writes them in batches to
+ * an append-only memory-mapped file in a compact binary format, which can be read with the {@link AuditLogReader}.
+ * <p>
+ * When the auditor is overloaded, events are not waited for: events published while the ring buffer is full are
+ * dropped, and when an overload sample rate greater than one is configured, only a sample of the successful
+ * decisions is kept while the ring buffer is more than three quarters full, so that there is still room for the failed
+ * authentications and the denied permissions. The {@link #getDropped()} and {@link #getSampledOut()} counters tell how
+ * many events were not written.
+ * <p>
+ * If the file can not be written, the remaining events are dropped and the failure is thrown when the auditor is
+ * closed. An event that can not be encoded is dropped, and the following events are still written.
+ */
+public final class RingBufferSecurityAuditor implements SecurityAuditor, AutoCloseable {
+
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int mask;
+    private final int overloadThreshold;
+    private final int overloadSampleRate;
+    /**
+     * Slot sequences: a slot can be published at the position equal to its sequence and consumed at the position
+     * preceding its sequence.
+     */
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerPosition = new AtomicLong();
+    private final byte[] types;
+    private final byte[] outcomes;
+    private final long[] timestamps;
+    private final String[] principalNames;
+    private final Class<?>[] sources;
+    private final Class<?>[] requestTypes;
+    private final Permission[] permissions;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final AuditLogWriter writer;
+    private final Thread consumer;
+    private volatile boolean running = true;
+    private volatile IOException writeFailure;
+    /**
+     * Only accessed by the consumer thread.
+     */
+    private long consumerPosition;
+    /**
+     * Consumer position published after every batch, so that producers can estimate the ring buffer usage.
+     */
+    private volatile long consumedPosition;
+
+    /**
+     * Creates an auditor that drops events when the ring buffer is full.
+     *
+     * @param file The audit log file, which must not exist
+     * @param capacity The ring buffer capacity, rounded up to a power of two
+     * @throws IOException if the file can not be created
+     */
+    public RingBufferSecurityAuditor(Path file, int capacity) throws IOException {
+        this(file, capacity, 1);
+    }
+
+    /**
+     * @param file The audit log file, which must not exist
+     * @param capacity The ring buffer capacity, rounded up to a power of two
+     * @param overloadSampleRate keep one of this many successful decisions while the ring buffer is more than three
+     *        quarters full, 1 keeps all of them
+     * @throws IOException if the file can not be created
+     */
+    public RingBufferSecurityAuditor(Path file, int capacity, int overloadSampleRate) throws IOException {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException(String.format("Invalid ring buffer capacity %d", capacity));
+        }
+        if (overloadSampleRate < 1) {
+            throw new IllegalArgumentException(String.format("Invalid overload sample rate %d", overloadSampleRate));
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.overloadThreshold = size - size / 4;
+        this.overloadSampleRate = overloadSampleRate;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.types = new byte[size];
+        this.outcomes = new byte[size];
+        this.timestamps = new long[size];
+        this.principalNames = new String[size];
+        this.sources = new Class<?>[size];
+        this.requestTypes = new Class<?>[size];
+        this.permissions = new Permission[size];
+        this.writer = new AuditLogWriter(file);
+        this.consumer = new Thread(this::consume, "quarkus-security-audit");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    @Override
+    public void auditAuthentication(Class<?> providerClass, Class<? extends AuthenticationRequest> requestType,
+            String principalName, Outcome outcome) {
+        publish(AuditEvent.Type.AUTHENTICATION, outcome, principalName, providerClass, requestType, null);
+    }
+
+    @Override
+    public void auditAugmentation(Class<?> augmentorClass, String principalName, Outcome outcome) {
+        publish(AuditEvent.Type.AUGMENTATION, outcome, principalName, augmentorClass, null, null);
+    }
+
+    @Override
+    public void auditPermissionCheck(String principalName, Permission permission, Outcome outcome) {
+        publish(AuditEvent.Type.PERMISSION_CHECK, outcome, principalName, null, null, permission);
+    }
+
+    /**
+     * @return number of events dropped because the ring buffer was full, the file could not be written or the event
+     *         could not be encoded
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return number of successful decisions that were not kept by the overload sampling
+     */
+    public long getSampledOut() {
+        return sampledOut.sum();
+    }
+
+    /**
+     * @return number of events written to the file
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * Writes the remaining events, stops the background thread and closes the file.
+     *
+     * @throws IOException if the file could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (writeFailure == null) {
+                writeFailure = e;
+            }
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    private void publish(AuditEvent.Type type, Outcome outcome, String principalName, Class<?> source,
+            Class<?> requestType, Permission permission) {
+        if (!running || writeFailure != null) {
+            dropped.increment();
+            return;
+        }
+        long position;
+        int index;
+        while (true) {
+            position = producerPosition.get();
+            index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence < position) {
+                // the slot has not been consumed yet, the ring buffer is full
+                dropped.increment();
+                return;
+            }
+            if (sequence == position) {
+                if (overloadSampleRate > 1 && outcome == Outcome.SUCCESS
+                        && position - consumedPosition >= overloadThreshold
+                        && ThreadLocalRandom.current().nextInt(overloadSampleRate) != 0) {
+                    sampledOut.increment();
+                    return;
+                }
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            }
+            // another producer claimed the slot, retry with the next position
+        }
+        types[index] = (byte) type.ordinal();
+        outcomes[index] = (byte) outcome.ordinal();
+        timestamps[index] = System.currentTimeMillis();
+        principalNames[index] = principalName;
+        sources[index] = source;
+        requestTypes[index] = requestType;
+        permissions[index] = permission;
+        // publishes the slot to the consumer
+        sequences.lazySet(index, position + 1);
+    }
+
+    private void consume() {
+        AuditEvent.Type[] typeValues = AuditEvent.Type.values();
+        Outcome[] outcomeValues = Outcome.values();
+        while (true) {
+            int batch = 0;
+            while (batch < BATCH_SIZE) {
+                int index = (int) consumerPosition & mask;
+                if (sequences.get(index) != consumerPosition + 1) {
+                    break;
+                }
+                if (writeFailure == null) {
+                    try {
+                        writer.write(typeValues[types[index]], timestamps[index], outcomeValues[outcomes[index]],
+                                principalNames[index], sources[index], requestTypes[index], permissions[index]);
+                        written.incrementAndGet();
+                    } catch (IOException e) {
+                        writeFailure = e;
+                    } catch (RuntimeException e) {
+                        // only this event is lost, the consumer must keep releasing the slots
+                        dropped.increment();
+                    }
+                }
+                if (writeFailure != null) {
+                    dropped.increment();
+                }
+                principalNames[index] = null;
+                sources[index] = null;
+                requestTypes[index] = null;
+                permissions[index] = null;
+                // releases the slot to the producers
+                sequences.lazySet(index, consumerPosition + mask + 1);
+                consumerPosition++;
+                batch++;
+            }
+            consumedPosition = consumerPosition;
+            if (batch == 0) {
+                if (!running && producerPosition.get() == consumerPosition) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.quarkus.security.audit;
+
+import java.security.Permission;
+
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.IdentityProviderManager;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.SecurityIdentityAugmentor;
+import io.quarkus.security.identity.request.AuthenticationRequest;
+import io.quarkus.security.identity.request.UsernamePasswordAuthenticationRequest;
+import io.quarkus.security.metrics.SecurityMetrics.Outcome;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * SPI that receives an audit event for every authentication and authorization decision.
+ * <p>
+ * {@link IdentityProviderManager} implementations should report every {@link IdentityProvider#authenticate} and
+ * every {@link SecurityIdentityAugmentor#augment} outcome, and {@link SecurityIdentity} implementations should report
+ * every {@link SecurityIdentity#checkPermission(Permission)} decision, either by calling the audit methods directly,
+ * or by wrapping the respective {@link Uni} with the audited methods.
+ * <p>
+ * The audit methods are invoked on the request thread, therefore implementations must not block or perform I/O in
+ * them. When {@link #isEnabled()} returns false, the audited methods return the original {@link Uni} unchanged.
+ *
+ * @see RingBufferSecurityAuditor
+ */
+public interface SecurityAuditor {
+
+    /**
+     * Auditor that audits nothing.
+     */
+    SecurityAuditor DISABLED = new SecurityAuditor() {
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void auditAuthentication(Class<?> providerClass, Class<? extends AuthenticationRequest> requestType,
+                String principalName, Outcome outcome) {
+        }
+
+        @Override
+        public void auditAugmentation(Class<?> augmentorClass, String principalName, Outcome outcome) {
+        }
+
+        @Override
+        public void auditPermissionCheck(String principalName, Permission permission, Outcome outcome) {
+        }
+    };
+
+    /**
+     * @return true if the decisions should be audited
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Audits one {@link IdentityProvider#authenticate} outcome.
+     *
+     * @param providerClass The identity provider class
+     * @param requestType The authentication request type
+     * @param principalName The principal name of the created identity, the username of the rejected
+     *        {@link UsernamePasswordAuthenticationRequest}, or null
+     * @param outcome {@link Outcome#SUCCESS} if an identity was created, {@link Outcome#NO_IDENTITY} if the provider
+     *        completed with null, {@link Outcome#FAILURE} if the credentials were invalid, {@link Outcome#ERROR} otherwise
+     */
+    void auditAuthentication(Class<?> providerClass, Class<? extends AuthenticationRequest> requestType,
+            String principalName, Outcome outcome);
+
+    /**
+     * Audits one {@link SecurityIdentityAugmentor#augment} outcome.
+     *
+     * @param augmentorClass The augmentor class
+     * @param principalName The principal name of the augmented identity, or null
+     * @param outcome {@link Outcome#SUCCESS} if the identity was augmented, {@link Outcome#FAILURE} if the augmentor
+     *        failed with the {@link io.quarkus.security.AuthenticationFailedException}, {@link Outcome#ERROR} otherwise
+     */
+    void auditAugmentation(Class<?> augmentorClass, String principalName, Outcome outcome);
+
+    /**
+     * Audits one {@link SecurityIdentity#checkPermission(Permission)} decision.
+     *
+     * @param principalName The principal name of the identity, or null for the anonymous identity
+     * @param permission The checked permission
+     * @param outcome {@link Outcome#SUCCESS} if the permission was granted, {@link Outcome#FAILURE} if it was denied,
+     *        {@link Outcome#ERROR} if the check failed
+     */
+    void auditPermissionCheck(String principalName, Permission permission, Outcome outcome);
+
+    /**
+     * Audits the authentication performed by the identity provider when the returned Uni is subscribed to.
+     *
+     * @param providerClass The identity provider class
+     * @param request The authentication request
+     * @param authentication The Uni returned by the {@link IdentityProvider#authenticate}
+     * @return The audited authentication
+     */
+    default Uni<SecurityIdentity> auditedAuthentication(Class<?> providerClass, AuthenticationRequest request,
+            Uni<SecurityIdentity> authentication) {
+        if (!isEnabled()) {
+            return authentication;
+        }
+        return authentication.onItemOrFailure().invoke((identity, failure) -> {
+            if (failure != null) {
+                auditAuthentication(providerClass, request.getClass(),
+                        request instanceof UsernamePasswordAuthenticationRequest
+                                ? ((UsernamePasswordAuthenticationRequest) request).getUsername()
+                                : null,
+                        Outcome.of(failure));
+            } else if (identity == null) {
+                auditAuthentication(providerClass, request.getClass(), null, Outcome.NO_IDENTITY);
+            } else {
+                auditAuthentication(providerClass, request.getClass(), principalName(identity), Outcome.SUCCESS);
+            }
+        });
+    }
+
+    /**
+     * Audits the augmentation performed by the augmentor when the returned Uni is subscribed to.
+     *
+     * @param augmentorClass The augmentor class
+     * @param identity The identity passed to the augmentor
+     * @param augmentation The Uni returned by the {@link SecurityIdentityAugmentor#augment}
+     * @return The audited augmentation
+     */
+    default Uni<SecurityIdentity> auditedAugmentation(Class<?> augmentorClass, SecurityIdentity identity,
+            Uni<SecurityIdentity> augmentation) {
+        if (!isEnabled()) {
+            return augmentation;
+        }
+        return augmentation.onItemOrFailure().invoke((augmented, failure) -> auditAugmentation(augmentorClass,
+                principalName(identity), failure == null ? Outcome.SUCCESS : Outcome.of(failure)));
+    }
+
+    /**
+     * Audits the permission check decision when the returned Uni is subscribed to.
+     *
+     * @param identity The identity whose permission is checked
+     * @param permission The checked permission
+     * @param check The Uni returned by the {@link SecurityIdentity#checkPermission(Permission)}
+     * @return The audited permission check
+     */
+    default Uni<Boolean> auditedPermissionCheck(SecurityIdentity identity, Permission permission, Uni<Boolean> check) {
+        if (!isEnabled()) {
+            return check;
+        }
+        return check.onItemOrFailure().invoke((granted, failure) -> auditPermissionCheck(principalName(identity),
+                permission,
+                failure != null ? Outcome.ERROR : (Boolean.TRUE.equals(granted) ? Outcome.SUCCESS : Outcome.FAILURE)));
+    }
+
+    private static String principalName(SecurityIdentity identity) {
+        return identity == null || identity.isAnonymous() || identity.getPrincipal() == null ? null
+                : identity.getPrincipal().getName();
+    }
+}
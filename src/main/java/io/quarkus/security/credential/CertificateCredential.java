@@ -1,5 +1,6 @@
 package io.quarkus.security.credential;
 
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 
 /**
@@ -8,6 +9,7 @@ import java.security.cert.X509Certificate;
 public class CertificateCredential implements Credential {
 
     private final X509Certificate certificate;
+    private CredentialFingerprint fingerprint;
 
     public CertificateCredential(X509Certificate certificate) {
         this.certificate = certificate;
@@ -16,4 +18,21 @@ public class CertificateCredential implements Credential {
     public X509Certificate getCertificate() {
         return certificate;
     }
+
+    /**
+     * @return fingerprint of the DER encoded certificate, or null if the certificate is null
+     */
+    @Override
+    public CredentialFingerprint getFingerprint() {
+        CredentialFingerprint result = fingerprint;
+        if (result == null && certificate != null) {
+            try {
+                result = CredentialFingerprint.ofCertificate(certificate.getEncoded());
+            } catch (CertificateEncodingException e) {
+                throw new IllegalStateException("Failed to encode the certificate", e);
+            }
+            fingerprint = result;
+        }
+        return result;
+    }
 }
@@ -4,4 +4,15 @@ package io.quarkus.security.credential;
  * Marker interface for all credential sub interfaces.
  */
 public interface Credential {
+
+    /**
+     * Returns a fingerprint of the credential secret that can be used as a cache key instead of the credential itself.
+     * Implementations should compute the fingerprint at most once per credential instance, so that all the components
+     * that need the fingerprint during one request share it.
+     *
+     * @return credential fingerprint, or null if this credential does not support fingerprints
+     */
+    default CredentialFingerprint getFingerprint() {
+        return null;
+    }
 }
@@ -0,0 +1,232 @@
+package io.quarkus.security.credential;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * A keyed HMAC-SHA256 digest of the credential secret that can be used as a stable key of caches and request coalescing
+ * layers instead of the credential itself.
+ * <p>
+ * Fingerprints of different credential types never collide, as the digest also covers the credential type.
+ * The HMAC key is generated randomly when this class is initialized, so fingerprints are only comparable within
+ * one JVM. Nodes that exchange fingerprints, for example through the invalidation events, must configure the same
+ * secret key with the {@link #setKey(byte[])} method. Without the key, a fingerprint cannot be used to guess the
+ * credential, however fingerprints must still never be logged, and the {@link #toString()} method does not reveal
+ * the digest. Fingerprints of the {@link PasswordCredential}s can never be exported from the JVM.
+ *
+ * @see Credential#getFingerprint()
+ */
+public final class CredentialFingerprint {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte TOKEN = 'T';
+    private static final byte PASSWORD = 'P';
+    private static final byte CERTIFICATE = 'C';
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static volatile HmacKey key = new HmacKey(randomKey());
+
+    private final byte type;
+    private final byte[] digest;
+    private final int hashCode;
+
+    private CredentialFingerprint(byte type, byte[] digest) {
+        this.type = type;
+        this.digest = digest;
+        this.hashCode = (digest[0] & 0xFF) << 24 | (digest[1] & 0xFF) << 16 | (digest[2] & 0xFF) << 8 | (digest[3] & 0xFF);
+    }
+
+    /**
+     * Sets the secret HMAC key shared by all the nodes that exchange fingerprints. It should be called once when
+     * the application starts, before any credential is fingerprinted, because fingerprints computed with the previous
+     * key never equal the fingerprints computed with the new key.
+     *
+     * @param key The secret key, at least 32 bytes long
+     */
+    public static void setKey(byte[] key) {
+        if (key.length < 32) {
+            throw new IllegalArgumentException("Credential fingerprint key must be at least 32 bytes long");
+        }
+        CredentialFingerprint.key = new HmacKey(key.clone());
+    }
+
+    /**
+     * Creates a fingerprint from its {@link #toHexString()} representation, for example when it was received from
+     * another node that uses the same key.
+     *
+     * @param hex hexadecimal representation of the fingerprint
+     * @return fingerprint
+     */
+    public static CredentialFingerprint fromHexString(String hex) {
+        if (hex == null || hex.length() != 65 || (hex.charAt(0) != TOKEN && hex.charAt(0) != CERTIFICATE)) {
+            throw new IllegalArgumentException(
+                    "Credential fingerprint must be the credential type followed by 64 hexadecimal characters");
+        }
+        byte[] digest = new byte[32];
+        for (int i = 0; i < digest.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i + 1), 16);
+            int low = Character.digit(hex.charAt(2 * i + 2), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Credential fingerprint must only contain hexadecimal characters");
+            }
+            digest[i] = (byte) (high << 4 | low);
+        }
+        return new CredentialFingerprint((byte) hex.charAt(0), digest);
+    }
+
+    /**
+     * @return true if this is a fingerprint of a password, which can not be exported
+     */
+    public boolean isPassword() {
+        return type == PASSWORD;
+    }
+
+    /**
+     * @return a copy of the HMAC digest
+     * @throws UnsupportedOperationException if this is a fingerprint of a password
+     */
+    public byte[] getBytes() {
+        checkExportable();
+        return digest.clone();
+    }
+
+    /**
+     * @return the credential type followed by the hexadecimal representation of the HMAC digest, which can be sent
+     *         to the other nodes that use the same key
+     * @throws UnsupportedOperationException if this is a fingerprint of a password
+     */
+    public String toHexString() {
+        checkExportable();
+        char[] hex = new char[digest.length * 2 + 1];
+        hex[0] = (char) type;
+        for (int i = 0; i < digest.length; i++) {
+            hex[2 * i + 1] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+            hex[2 * i + 2] = HEX_DIGITS[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CredentialFingerprint)) {
+            return false;
+        }
+        return MessageDigest.isEqual(digest, ((CredentialFingerprint) o).digest);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /**
+     * @return the credential type, the digest is never included
+     */
+    @Override
+    public String toString() {
+        switch (type) {
+            case TOKEN:
+                return "CredentialFingerprint[token]";
+            case PASSWORD:
+                return "CredentialFingerprint[password]";
+            default:
+                return "CredentialFingerprint[certificate]";
+        }
+    }
+
+    static CredentialFingerprint ofToken(String type, ByteBuffer token) {
+        Mac digest = newDigest(TOKEN);
+        if (type != null) {
+            byte[] typeBytes = type.getBytes(StandardCharsets.UTF_8);
+            updateLength(digest, typeBytes.length);
+            digest.update(typeBytes);
+        } else {
+            updateLength(digest, -1);
+        }
+        digest.update(token);
+        return new CredentialFingerprint(TOKEN, digest.doFinal());
+    }
+
+    static CredentialFingerprint ofPassword(CharBuffer password) {
+        Mac digest = newDigest(PASSWORD);
+        for (int i = password.position(); i < password.limit(); i++) {
+            // digest characters one by one so that no copy of the password is created
+            char c = password.get(i);
+            digest.update((byte) (c >> 8));
+            digest.update((byte) c);
+        }
+        return new CredentialFingerprint(PASSWORD, digest.doFinal());
+    }
+
+    static CredentialFingerprint ofCertificate(byte[] encoded) {
+        Mac digest = newDigest(CERTIFICATE);
+        digest.update(encoded);
+        return new CredentialFingerprint(CERTIFICATE, digest.doFinal());
+    }
+
+    private void checkExportable() {
+        if (type == PASSWORD) {
+            throw new UnsupportedOperationException("Password fingerprints can not be exported");
+        }
+    }
+
+    private static void updateLength(Mac digest, int length) {
+        digest.update((byte) (length >> 24));
+        digest.update((byte) (length >> 16));
+        digest.update((byte) (length >> 8));
+        digest.update((byte) length);
+    }
+
+    private static Mac newDigest(byte credentialType) {
+        Mac digest = key.newMac();
+        digest.update(credentialType);
+        return digest;
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private static final class HmacKey {
+
+        private final SecretKeySpec key;
+        private final Mac prototype;
+
+        private HmacKey(byte[] key) {
+            this.key = new SecretKeySpec(key, ALGORITHM);
+            this.prototype = createMac();
+        }
+
+        private Mac newMac() {
+            try {
+                // cloning avoids the provider lookup and the key schedule of every new instance
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                return createMac();
+            }
+        }
+
+        private Mac createMac() {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                // every Java platform implementation must support HmacSHA256
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
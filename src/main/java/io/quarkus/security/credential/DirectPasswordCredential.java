@@ -0,0 +1,82 @@
+package io.quarkus.security.credential;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/**
+ * A password based credential that keeps the password outside the Java heap, in a direct buffer.
+ * Unlike a heap array, the password is never relocated and thus duplicated by the garbage collector,
+ * and it is wiped deterministically when the credential is {@link #destroy() destroyed}.
+ * <p>
+ * Identity providers should hash the password directly from the {@link #getPasswordBuffer()}. Like any
+ * {@link PasswordCredential}, the credential is destroyed by the authentication mechanism once the authentication of
+ * the request has completed, not by the identity providers.
+ */
+public class DirectPasswordCredential extends PasswordCredential {
+
+    private final ByteBuffer storage;
+    private final CharBuffer password;
+
+    /**
+     * Creates the credential and overwrites the {@code password} array with zeros.
+     *
+     * @param password The password
+     */
+    public DirectPasswordCredential(char[] password) {
+        this(CharBuffer.wrap(password));
+    }
+
+    /**
+     * Creates the credential from the remaining characters of the {@code password} buffer. If the buffer is writable,
+     * the characters are overwritten with zeros after they have been copied.
+     *
+     * @param password The password
+     */
+    public DirectPasswordCredential(CharBuffer password) {
+        super(null);
+        final int length = password.remaining();
+        this.storage = ByteBuffer.allocateDirect(length * Character.BYTES);
+        this.password = storage.asCharBuffer();
+        final int start = password.position();
+        for (int i = 0; i < length; i++) {
+            this.password.put(i, password.get(start + i));
+        }
+        if (!password.isReadOnly()) {
+            for (int i = 0; i < length; i++) {
+                password.put(start + i, '\0');
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the password allocated on the heap. Callers should overwrite the returned array with zeros once
+     * they no longer need it. Prefer the {@link #getPasswordBuffer()} method, which does not copy the password.
+     *
+     * @return a copy of the password
+     * @throws IllegalStateException if this credential has been destroyed
+     */
+    @Override
+    public char[] getPassword() {
+        checkNotDestroyed();
+        char[] copy = new char[password.capacity()];
+        password.duplicate().get(copy);
+        return copy;
+    }
+
+    @Override
+    public CharBuffer getPasswordBuffer() {
+        checkNotDestroyed();
+        return password.asReadOnlyBuffer();
+    }
+
+    /**
+     * Overwrites the password with zeros.
+     */
+    @Override
+    public void destroy() {
+        super.destroy();
+        for (int i = 0; i < storage.capacity(); i++) {
+            storage.put(i, (byte) 0);
+        }
+    }
+}
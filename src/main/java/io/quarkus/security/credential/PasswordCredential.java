@@ -1,17 +1,100 @@
 package io.quarkus.security.credential;
 
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import javax.security.auth.Destroyable;
+
 /**
  * A simple password based credential
+ * <p>
+ * The authentication mechanism that created the authentication request should {@link #destroy()} the credential once
+ * the authentication of the request has completed, so that the plaintext password does not stay in the memory until
+ * the credential is garbage collected:
+ * <pre>
+ * {@code
+ * PasswordCredential credential = new PasswordCredential(password);
+ * return identityProviderManager.authenticate(new UsernamePasswordAuthenticationRequest(username, credential))
+ *         .onTermination().invoke(credential::destroy);
+ * }
+ * </pre>
+ * Identity providers must not destroy the credential, because the
+ * {@link io.quarkus.security.identity.IdentityProviderManager} offers the request to the next identity provider when
+ * one of them does not authenticate it.
+ *
+ * @see DirectPasswordCredential
  */
-public class PasswordCredential implements Credential {
+public class PasswordCredential implements Credential, Destroyable {
 
     private final char[] password;
+    private CredentialFingerprint fingerprint;
+    private volatile boolean destroyed;
 
     public PasswordCredential(char[] password) {
         this.password = password;
     }
 
+    /**
+     * @return the password
+     * @throws IllegalStateException if this credential has been destroyed
+     */
     public char[] getPassword() {
+        checkNotDestroyed();
         return password;
     }
+
+    /**
+     * Returns a read-only view of the password. Password hashing implementations that accept a {@link CharBuffer}
+     * should prefer this method to the {@link #getPassword()}, as it never copies the password.
+     *
+     * @return read-only view of the password, or null if the password is null
+     * @throws IllegalStateException if this credential has been destroyed
+     */
+    public CharBuffer getPasswordBuffer() {
+        checkNotDestroyed();
+        return password == null ? null : CharBuffer.wrap(password).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns fingerprint of the password. The fingerprint is computed on the first invocation of this method,
+     * therefore the password must not be modified afterwards. A fingerprint computed before this credential was
+     * destroyed remains available.
+     *
+     * @return fingerprint of the password, or null if the password is null
+     * @throws IllegalStateException if this credential has been destroyed before the fingerprint was computed
+     */
+    @Override
+    public CredentialFingerprint getFingerprint() {
+        CredentialFingerprint result = fingerprint;
+        if (result == null) {
+            CharBuffer passwordBuffer = getPasswordBuffer();
+            if (passwordBuffer != null) {
+                result = CredentialFingerprint.ofPassword(passwordBuffer);
+                fingerprint = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Overwrites the password with zeros.
+     */
+    @Override
+    public void destroy() {
+        destroyed = true;
+        if (password != null) {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    @Override
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+
+    void checkNotDestroyed() {
+        if (destroyed) {
+            throw new IllegalStateException("Password credential has been destroyed");
+        }
+    }
 }
@@ -1,23 +1,151 @@
 package io.quarkus.security.credential;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * A token based credential
+ * <p>
+ * The token can be represented either as a {@link String}, or as UTF-8 encoded bytes, such as a slice of the buffer
+ * the token was received in. Token parsers that operate on bytes should use {@link #getTokenBytes()}, so that
+ * a {@link String} representation of the byte-backed token does not need to be created at all.
  */
 public class TokenCredential implements Credential {
 
     private final String token;
     private final String type;
+    private volatile ByteBuffer tokenBytes;
+    private volatile String decodedToken;
+    private CredentialFingerprint fingerprint;
 
     public TokenCredential(String token, String type) {
         this.token = token;
         this.type = type;
     }
 
+    private TokenCredential(ByteBuffer tokenBytes, String type) {
+        this.token = null;
+        this.tokenBytes = tokenBytes;
+        this.type = type;
+    }
+
+    /**
+     * Creates a token credential backed by the remaining bytes of the {@code token} buffer. The bytes are not copied,
+     * therefore the buffer content must not be modified while this credential is in use.
+     *
+     * @param token UTF-8 encoded token
+     * @param type token type
+     * @return byte-backed token credential
+     */
+    public static TokenCredential ofBytes(ByteBuffer token, String type) {
+        return new TokenCredential(token.slice().asReadOnlyBuffer(), type);
+    }
+
+    /**
+     * Creates a token credential backed by the {@code token} array slice. The bytes are not copied,
+     * therefore the array content must not be modified while this credential is in use.
+     *
+     * @param token UTF-8 encoded token
+     * @param offset token offset within the array
+     * @param length token length
+     * @param type token type
+     * @return byte-backed token credential
+     */
+    public static TokenCredential ofBytes(byte[] token, int offset, int length, String type) {
+        return ofBytes(ByteBuffer.wrap(token, offset, length), type);
+    }
+
+    /**
+     * Returns the token. If this credential is backed by bytes, the {@link String} representation is created
+     * on the first invocation of this method.
+     *
+     * @return token
+     */
     public String getToken() {
-        return token;
+        if (token != null) {
+            return token;
+        }
+        String result = decodedToken;
+        if (result == null) {
+            ByteBuffer bytes = tokenBytes;
+            if (bytes != null) {
+                result = StandardCharsets.UTF_8.decode(bytes.duplicate()).toString();
+                decodedToken = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the UTF-8 encoded token. If this credential is backed by bytes, no bytes are copied.
+     * Otherwise, the token is encoded on the first invocation of this method.
+     *
+     * @return read-only buffer positioned at the beginning of the token, or null if the token is null
+     */
+    public ByteBuffer getTokenBytes() {
+        ByteBuffer result = tokenBytes;
+        if (result == null) {
+            if (token == null) {
+                return null;
+            }
+            result = ByteBuffer.wrap(token.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+            tokenBytes = result;
+        }
+        // independent position and limit for every caller
+        return result.duplicate();
+    }
+
+    /**
+     * Returns the length of the UTF-8 encoded token. Unlike {@link #getTokenBytes()}, the token is not encoded,
+     * so that the length of a token can be checked before the token is processed.
+     *
+     * @return token length in bytes, or -1 if the token is null
+     */
+    public int getTokenLength() {
+        ByteBuffer bytes = tokenBytes;
+        if (bytes != null) {
+            return bytes.remaining();
+        }
+        if (token == null) {
+            return -1;
+        }
+        // same length as String#getBytes, which replaces unpaired surrogates with a single byte
+        long length = token.length();
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                length++;
+            } else if (!Character.isSurrogate(c)) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < token.length()
+                    && Character.isLowSurrogate(token.charAt(i + 1))) {
+                length += 2;
+                i++;
+            }
+        }
+        return (int) Math.min(length, Integer.MAX_VALUE);
     }
 
     public String getType() {
         return type;
     }
+
+    /**
+     * @return fingerprint of the token type and the token, or null if the token is null
+     */
+    @Override
+    public CredentialFingerprint getFingerprint() {
+        CredentialFingerprint result = fingerprint;
+        if (result == null) {
+            ByteBuffer bytes = getTokenBytes();
+            if (bytes != null) {
+                result = CredentialFingerprint.ofToken(type, bytes);
+                fingerprint = result;
+            }
+        }
+        return result;
+    }
 }
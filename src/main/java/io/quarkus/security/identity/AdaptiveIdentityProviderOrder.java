@@ -0,0 +1,135 @@
+package io.quarkus.security.identity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.quarkus.security.identity.request.AuthenticationRequest;
+
+/**
+ * Order in which an {@link IdentityProviderManager} offers a request of one type to the {@link IdentityProvider}s,
+ * adapted at runtime to the observed provider behavior.
+ * <p>
+ * Providers are always ordered by their declared {@link IdentityProvider#priority()} first. Providers with an equal
+ * priority are additionally ordered by the ratio of their observed accept rate to their average latency,
+ * so that the provider that is most likely to create the identity quickly is tried first. The ratio is
+ * an exponentially weighted moving average, re-evaluated every {@code reorderInterval} recorded outcomes.
+ * The current order is an immutable snapshot that is swapped atomically, therefore {@link #getProviders()}
+ * never blocks.
+ * <p>
+ * Adaptive ordering is only suitable for providers of equal priority that complete with null when they can not handle
+ * the request. A provider that fails with the {@link io.quarkus.security.AuthenticationFailedException} stops the
+ * processing, therefore reordering such providers could change the authentication result.
+ *
+ * @param <T> The authentication request type
+ */
+public final class AdaptiveIdentityProviderOrder<T extends AuthenticationRequest> {
+
+    private static final double SMOOTHING = 0.3;
+
+    private final Map<IdentityProvider<T>, ProviderStatistics> statistics = new IdentityHashMap<>();
+    private final AtomicReference<List<IdentityProvider<T>>> snapshot;
+    private final AtomicBoolean reordering = new AtomicBoolean();
+    private final LongAdder recordedSinceReorder = new LongAdder();
+    private final int reorderInterval;
+
+    /**
+     * @param providers The identity providers that handle the request type
+     * @param reorderInterval Number of recorded outcomes after which the order is re-evaluated
+     */
+    public AdaptiveIdentityProviderOrder(Collection<? extends IdentityProvider<T>> providers, int reorderInterval) {
+        List<IdentityProvider<T>> initial = new ArrayList<>(providers);
+        initial.sort(Comparator.comparingInt(IdentityProvider<T>::priority).reversed());
+        for (IdentityProvider<T> provider : initial) {
+            statistics.put(provider, new ProviderStatistics());
+        }
+        this.snapshot = new AtomicReference<>(Collections.unmodifiableList(initial));
+        this.reorderInterval = reorderInterval;
+    }
+
+    /**
+     * @return The providers in the order they should be tried
+     */
+    public List<IdentityProvider<T>> getProviders() {
+        return snapshot.get();
+    }
+
+    /**
+     * Records the result of offering a request to the provider.
+     *
+     * @param provider The identity provider
+     * @param accepted true if the provider created the identity
+     * @param durationNanos How long the provider took
+     */
+    public void record(IdentityProvider<T> provider, boolean accepted, long durationNanos) {
+        ProviderStatistics providerStatistics = statistics.get(provider);
+        if (providerStatistics == null) {
+            return;
+        }
+        providerStatistics.attempts.increment();
+        if (accepted) {
+            providerStatistics.accepted.increment();
+        }
+        providerStatistics.totalNanos.add(durationNanos);
+        recordedSinceReorder.increment();
+        if (recordedSinceReorder.sum() >= reorderInterval && reordering.compareAndSet(false, true)) {
+            try {
+                recordedSinceReorder.reset();
+                reorder();
+            } finally {
+                reordering.set(false);
+            }
+        }
+    }
+
+    private void reorder() {
+        for (ProviderStatistics providerStatistics : statistics.values()) {
+            providerStatistics.updateScore();
+        }
+        List<IdentityProvider<T>> reordered = new ArrayList<>(snapshot.get());
+        reordered.sort(Comparator.comparingInt(IdentityProvider<T>::priority).reversed()
+                .thenComparing(Comparator.comparingDouble((IdentityProvider<T> p) -> statistics.get(p).score).reversed()));
+        snapshot.set(Collections.unmodifiableList(reordered));
+    }
+
+    private static final class ProviderStatistics {
+
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private long lastAttempts;
+        private long lastAccepted;
+        private long lastTotalNanos;
+        /**
+         * Accepted requests per millisecond spent in the provider. This and the 'last' fields are only accessed
+         * by the thread that holds the reordering flag.
+         */
+        private double score;
+        private boolean hasScore;
+
+        private void updateScore() {
+            long currentAttempts = attempts.sum();
+            long currentAccepted = accepted.sum();
+            long currentTotalNanos = totalNanos.sum();
+            long windowAttempts = currentAttempts - lastAttempts;
+            if (windowAttempts == 0) {
+                return;
+            }
+            double acceptRate = (double) (currentAccepted - lastAccepted) / windowAttempts;
+            double averageMillis = Math.max(1e-3, (currentTotalNanos - lastTotalNanos) / 1_000_000.0 / windowAttempts);
+            double windowScore = acceptRate / averageMillis;
+            score = hasScore ? SMOOTHING * windowScore + (1 - SMOOTHING) * score : windowScore;
+            hasScore = true;
+            lastAttempts = currentAttempts;
+            lastAccepted = currentAccepted;
+            lastTotalNanos = currentTotalNanos;
+        }
+    }
+}
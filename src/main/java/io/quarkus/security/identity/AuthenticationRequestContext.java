@@ -14,4 +14,25 @@ public interface AuthenticationRequestContext {
 
     Uni<SecurityIdentity> runBlocking(Supplier<SecurityIdentity> function);
 
+    /**
+     * Runs a CPU intensive task, such as a password hash verification triggered by the
+     * {@link io.quarkus.security.identity.request.UsernamePasswordAuthenticationRequest}.
+     * <p>
+     * Unlike {@link #runBlocking(Supplier)}, which is meant for tasks waiting on I/O, CPU intensive tasks should run on
+     * a dedicated executor with as many threads as there are CPU cores and with a bounded queue, see
+     * {@link CpuIntensiveExecutor}. This way, a burst of login attempts does not starve unrelated blocking tasks,
+     * and excess hashing work is rejected rather than queued indefinitely. Implementations backed by a bounded
+     * {@link CpuIntensiveExecutor} fail the returned Uni with the
+     * {@link java.util.concurrent.RejectedExecutionException} when its queue is full.
+     * <p>
+     * By default, this method behaves exactly like the {@link #runBlocking(Supplier)}: the task is not bounded by any
+     * queue and is never rejected.
+     *
+     * @param function The CPU intensive task
+     * @return The future security identity
+     */
+    default Uni<SecurityIdentity> runCpuIntensive(Supplier<SecurityIdentity> function) {
+        return runBlocking(function);
+    }
+
 }
@@ -0,0 +1,60 @@
+package io.quarkus.security.identity;
+
+import io.quarkus.security.AuthenticationFailedException;
+
+/**
+ * Result of one authentication request of a batch, see {@link IdentityProviderManager#authenticateAll} and
+ * {@link IdentityProvider#authenticateAll}. Each request of a batch succeeds or fails independently of the others.
+ */
+public final class AuthenticationResult {
+
+    private static final AuthenticationResult NO_IDENTITY = new AuthenticationResult(null, null);
+
+    private final SecurityIdentity identity;
+    private final Throwable failure;
+
+    private AuthenticationResult(SecurityIdentity identity, Throwable failure) {
+        this.identity = identity;
+        this.failure = failure;
+    }
+
+    /**
+     * @param identity The created identity, or null if the identity provider could not handle the request
+     * @return The successful result
+     */
+    public static AuthenticationResult of(SecurityIdentity identity) {
+        return identity == null ? NO_IDENTITY : new AuthenticationResult(identity, null);
+    }
+
+    /**
+     * @param failure The authentication failure, usually the {@link AuthenticationFailedException}
+     * @return The failed result
+     */
+    public static AuthenticationResult failed(Throwable failure) {
+        return new AuthenticationResult(null, failure);
+    }
+
+    /**
+     * @return The created identity, or null if the authentication failed or the provider could not handle the request
+     */
+    public SecurityIdentity getIdentity() {
+        return identity;
+    }
+
+    /**
+     * @return The authentication failure, or null if the authentication did not fail
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    @Override
+    public String toString() {
+        return failure != null ? "AuthenticationResult[failed: " + failure + "]"
+                : "AuthenticationResult[" + (identity == null ? "no identity" : identity.getPrincipal()) + "]";
+    }
+}
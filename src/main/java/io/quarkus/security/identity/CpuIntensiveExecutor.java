@@ -0,0 +1,159 @@
+package io.quarkus.security.identity;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Executor of CPU intensive authentication tasks, such as password hashing, that backs the
+ * {@link AuthenticationRequestContext#runCpuIntensive(Supplier)} method.
+ * <p>
+ * The executor uses a fixed number of threads, by default one per available CPU core, and a bounded queue.
+ * Tasks submitted when the queue is full are rejected, and tasks whose Uni was cancelled before they started
+ * are skipped. The executor records the queue depth, the number of rejected tasks and the time tasks spend waiting
+ * in the queue and running, so that the hashing capacity can be monitored.
+ */
+public final class CpuIntensiveExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalQueueTimeNanos = new LongAdder();
+    private final LongAdder totalExecutionTimeNanos = new LongAdder();
+    private final AtomicLong maxQueueTimeNanos = new AtomicLong();
+
+    /**
+     * Creates an executor with one thread per available CPU core and a queue of 64 tasks per thread.
+     */
+    public CpuIntensiveExecutor() {
+        this(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors() * 64);
+    }
+
+    /**
+     * @param threads number of threads
+     * @param queueLimit maximum number of tasks waiting for a thread
+     */
+    public CpuIntensiveExecutor(int threads, int queueLimit) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), new CpuIntensiveThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+    }
+
+    /**
+     * Runs the task on this executor.
+     *
+     * @param task The CPU intensive task
+     * @param <T> The task result type
+     * @return Uni that resolves to the task result, or fails with the {@link RejectedExecutionException} if the queue
+     *         is full
+     */
+    public <T> Uni<T> submit(Supplier<T> task) {
+        return Uni.createFrom().emitter(emitter -> {
+            final long queuedAt = System.nanoTime();
+            final AtomicBoolean terminated = new AtomicBoolean();
+            emitter.onTermination(() -> terminated.set(true));
+            try {
+                executor.execute(() -> {
+                    final long startedAt = System.nanoTime();
+                    final long queueTime = startedAt - queuedAt;
+                    totalQueueTimeNanos.add(queueTime);
+                    maxQueueTimeNanos.accumulateAndGet(queueTime, Math::max);
+                    if (terminated.get()) {
+                        // nobody waits for the result anymore, don't waste the CPU
+                        return;
+                    }
+                    try {
+                        emitter.complete(task.get());
+                    } catch (Throwable t) {
+                        emitter.fail(t);
+                    } finally {
+                        totalExecutionTimeNanos.add(System.nanoTime() - startedAt);
+                        completed.increment();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                emitter.fail(e);
+            }
+        });
+    }
+
+    /**
+     * @return number of tasks waiting for a thread
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return number of tasks that are currently running
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return number of tasks rejected because the queue was full
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return number of tasks that have completed, successfully or not
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * @return total time tasks spent waiting in the queue, in nanoseconds
+     */
+    public long getTotalQueueTimeNanos() {
+        return totalQueueTimeNanos.sum();
+    }
+
+    /**
+     * @return the longest time a task spent waiting in the queue, in nanoseconds
+     */
+    public long getMaxQueueTimeNanos() {
+        return maxQueueTimeNanos.get();
+    }
+
+    /**
+     * @return total time tasks spent running, in nanoseconds
+     */
+    public long getTotalExecutionTimeNanos() {
+        return totalExecutionTimeNanos.sum();
+    }
+
+    /**
+     * Stops accepting new tasks. Already queued tasks are still run.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static final class CpuIntensiveThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "quarkus-security-cpu-intensive-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -62,6 +62,23 @@ public interface CurrentIdentityAssociation {
      */
     Uni<SecurityIdentity> getDeferredIdentity();
 
+    /**
+     * Sets the current security identity for the thread and returns the previous identity, which can be restored
+     * with the {@link #setIdentity(Uni)} method. Unlike the {@link #getIdentity()}, this method never resolves
+     * the previous deferred identity.
+     * <p>
+     * This method is meant for short-lived identity changes such as running the {@link RunAsUser} methods.
+     * Implementations should override it so that it only swaps the identity references, without allocating.
+     *
+     * @param identity The new identity
+     * @return The previous, potentially lazy, security identity
+     */
+    default Uni<SecurityIdentity> swapIdentity(SecurityIdentity identity) {
+        Uni<SecurityIdentity> previous = getDeferredIdentity();
+        setIdentity(identity);
+        return previous;
+    }
+
     static SecurityIdentity current() {
         return CDI.current().select(CurrentIdentityAssociation.class).get().getIdentity();
     }
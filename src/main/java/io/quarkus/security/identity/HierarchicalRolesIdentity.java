@@ -0,0 +1,113 @@
+package io.quarkus.security.identity;
+
+import java.security.Permission;
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import io.quarkus.security.credential.Credential;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * {@link SecurityIdentity} whose role tests consider the roles inherited in the {@link RoleHierarchy}.
+ * Everything else is delegated to the wrapped identity.
+ */
+final class HierarchicalRolesIdentity implements SecurityIdentity {
+
+    final RoleHierarchy hierarchy;
+    private final SecurityIdentity delegate;
+    private final long[] roleMask;
+    private volatile Set<String> roles;
+
+    HierarchicalRolesIdentity(SecurityIdentity delegate, RoleHierarchy hierarchy, long[] roleMask) {
+        this.delegate = delegate;
+        this.hierarchy = hierarchy;
+        this.roleMask = roleMask;
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return delegate.getPrincipal();
+    }
+
+    @Override
+    public <T extends Principal> T getPrincipal(Class<T> clazz) {
+        return delegate.getPrincipal(clazz);
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return delegate.isAnonymous();
+    }
+
+    @Override
+    public Set<String> getRoles() {
+        Set<String> result = roles;
+        if (result == null) {
+            result = hierarchy.toRoles(roleMask, delegate.getRoles());
+            roles = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        return hierarchy.hasRole(roleMask, role) || delegate.hasRole(role);
+    }
+
+    @Override
+    public Set<Permission> getPermissions() {
+        return delegate.getPermissions();
+    }
+
+    @Override
+    public <T extends Credential> T getCredential(Class<T> credentialType) {
+        return delegate.getCredential(credentialType);
+    }
+
+    @Override
+    public Set<Credential> getCredentials() {
+        return delegate.getCredentials();
+    }
+
+    @Override
+    public <T> T getAttribute(String name) {
+        return delegate.getAttribute(name);
+    }
+
+    @Override
+    public <T> Uni<T> getAttributeAsync(String name) {
+        return delegate.getAttributeAsync(name);
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return delegate.getAttributes();
+    }
+
+    @Override
+    public Uni<Boolean> checkPermission(Permission permission) {
+        return delegate.checkPermission(permission);
+    }
+
+    @Override
+    public Uni<Set<Permission>> checkPermissions(Collection<? extends Permission> permissions, int concurrency) {
+        return delegate.checkPermissions(permissions, concurrency);
+    }
+
+    @Override
+    public boolean checkPermissionBlocking(Permission permission) {
+        return delegate.checkPermissionBlocking(permission);
+    }
+
+    @Override
+    public Uni<Boolean> checkPermission(String permission) {
+        return delegate.checkPermission(permission);
+    }
+
+    @Override
+    public boolean checkPermissionBlocking(String permission) {
+        return delegate.checkPermissionBlocking(permission);
+    }
+}
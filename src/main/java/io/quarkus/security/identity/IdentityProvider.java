@@ -1,5 +1,9 @@
 package io.quarkus.security.identity;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import io.quarkus.security.AuthenticationFailedException;
 import io.quarkus.security.identity.request.AuthenticationRequest;
 import io.smallrye.mutiny.Uni;
@@ -46,11 +50,42 @@ public interface IdentityProvider<T extends AuthenticationRequest> {
      */
     Uni<SecurityIdentity> authenticate(T request, AuthenticationRequestContext context);
 
+    /**
+     * Attempts to authenticate a batch of authentication requests. Each request succeeds or fails independently of
+     * the others, exactly as if it was passed to the {@link #authenticate} method: the result identity is null if
+     * the provider can not handle the request, and the result failure is the {@link AuthenticationFailedException}
+     * if the credentials are invalid.
+     * <p>
+     * Providers that can verify many credentials at once should override this method, for example to deduplicate
+     * repeated credentials, to verify signatures in parallel on all the CPU cores, or to introspect all the tokens
+     * with one remote call. By default, the requests are authenticated concurrently with the {@link #authenticate}
+     * method.
+     *
+     * @param requests The authentication requests
+     * @param context The context of the requests
+     * @return The future results, in the order of the requests
+     */
+    default Uni<List<AuthenticationResult>> authenticateAll(List<T> requests, AuthenticationRequestContext context) {
+        if (requests.isEmpty()) {
+            return Uni.createFrom().item(Collections.emptyList());
+        }
+        List<Uni<AuthenticationResult>> results = new ArrayList<>(requests.size());
+        for (T request : requests) {
+            results.add(Uni.createFrom().deferred(() -> authenticate(request, context))
+                    .map(AuthenticationResult::of)
+                    .onFailure().recoverWithItem(AuthenticationResult::failed));
+        }
+        return Uni.join().all(results).andFailFast();
+    }
+
     /**
      * Returns the priority of this identity provider. System providers
      * have a priority between 0 and 1000 by default, so to guarantee that
      * your provider runs before the Quarkus ones it's priority should be
      * over 1000.
+     * <p>
+     * Providers with an equal priority may be tried in any order, for example an order
+     * adapted to their observed behavior, see {@link AdaptiveIdentityProviderOrder}.
      *
      * @return The priority of this identity provider
      */
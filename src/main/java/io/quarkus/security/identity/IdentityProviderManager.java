@@ -1,10 +1,22 @@
 package io.quarkus.security.identity;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import io.quarkus.security.identity.request.AuthenticationRequest;
 import io.smallrye.mutiny.Uni;
 
 /**
  * A manager that can be used to get a specific type of identity provider.
+ * <p>
+ * When an {@link IdentityProviderRouter} is registered for the request type, the request is only offered to
+ * the {@link RoutedIdentityProvider}s registered for the request routing key and to the providers that are not routed,
+ * see {@link IdentityProviderRoutingTable}.
+ * <p>
+ * Requests that can never be authenticated, such as malformed or expired tokens, can be rejected before they are
+ * offered to any identity provider with the
+ * {@link io.quarkus.security.identity.prevalidation.AuthenticationPrevalidation}.
  */
 public interface IdentityProviderManager {
 
@@ -30,4 +42,29 @@ public interface IdentityProviderManager {
      */
     SecurityIdentity authenticateBlocking(AuthenticationRequest request);
 
+    /**
+     * Attempts to create an authenticated identity for each of the provided requests, for example for a batch of
+     * messages that each carry their own token. Each request succeeds or fails independently of the others, and
+     * the {@link AuthenticationResult#getIdentity()} of a successful result is never null.
+     * <p>
+     * Implementations should pass the requests of the same type to the {@link IdentityProvider#authenticateAll}
+     * method together, so that identity providers can verify them at once. By default, the requests are
+     * authenticated concurrently with the {@link #authenticate(AuthenticationRequest)} method.
+     *
+     * @param requests The authentication requests
+     * @return Uni that will resolve to the results in the order of the requests
+     */
+    default Uni<List<AuthenticationResult>> authenticateAll(List<? extends AuthenticationRequest> requests) {
+        if (requests.isEmpty()) {
+            return Uni.createFrom().item(Collections.emptyList());
+        }
+        List<Uni<AuthenticationResult>> results = new ArrayList<>(requests.size());
+        for (AuthenticationRequest request : requests) {
+            results.add(Uni.createFrom().deferred(() -> authenticate(request))
+                    .map(AuthenticationResult::of)
+                    .onFailure().recoverWithItem(AuthenticationResult::failed));
+        }
+        return Uni.join().all(results).andFailFast();
+    }
+
 }
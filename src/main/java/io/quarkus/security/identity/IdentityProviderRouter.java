@@ -0,0 +1,52 @@
+package io.quarkus.security.identity;
+
+import io.quarkus.security.identity.request.AuthenticationRequest;
+
+/**
+ * SPI that extracts a routing key, such as a tenant id or a token issuer, from the {@link AuthenticationRequest}, so
+ * that the {@link IdentityProviderManager} only offers the request to the {@link RoutedIdentityProvider}s registered
+ * for the key, instead of offering it to all the providers of the request type.
+ * <p>
+ * The routing key is extracted once per request, before any provider is invoked, therefore extraction should be cheap
+ * and must not block.
+ *
+ * @param <T> The authentication request type
+ * @see IdentityProviderRoutingTable
+ */
+public interface IdentityProviderRouter<T extends AuthenticationRequest> {
+
+    /**
+     * @return The type of request this router can handle
+     */
+    Class<T> getRequestType();
+
+    /**
+     * @param request The authentication request
+     * @return The routing key, or null if the request should only be offered to the providers that are not routed
+     */
+    String getRoutingKey(T request);
+
+    /**
+     * Creates a router that uses the request attribute as the routing key.
+     *
+     * @param requestType The authentication request type
+     * @param attributeName The name of the request attribute that contains the routing key, for example the tenant id
+     * @param <T> The authentication request type
+     * @return The router
+     */
+    static <T extends AuthenticationRequest> IdentityProviderRouter<T> attribute(Class<T> requestType,
+            String attributeName) {
+        return new IdentityProviderRouter<T>() {
+            @Override
+            public Class<T> getRequestType() {
+                return requestType;
+            }
+
+            @Override
+            public String getRoutingKey(T request) {
+                Object value = request.getAttribute(attributeName);
+                return value == null ? null : value.toString();
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package io.quarkus.security.identity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.quarkus.security.identity.request.AuthenticationRequest;
+
+/**
+ * Routing key to {@link IdentityProvider}s map that {@link IdentityProviderManager} implementations precompute
+ * when an {@link IdentityProviderRouter} is registered for the request type. For every routing key, the table holds
+ * the {@link RoutedIdentityProvider}s registered for the key together with all the providers that are not routed,
+ * ordered by the {@link IdentityProvider#priority()}. Selecting the providers of a request is therefore a single
+ * map lookup, regardless of the number of routing keys:
+ * <pre>
+ * {@code
+ * for (IdentityProvider<TokenAuthenticationRequest> provider : routingTable.getProviders(request)) {
+ *     ...
+ * }
+ * }
+ * </pre>
+ *
+ * @param <T> The authentication request type
+ */
+public final class IdentityProviderRoutingTable<T extends AuthenticationRequest> {
+
+    private final IdentityProviderRouter<T> router;
+    private final Map<String, List<IdentityProvider<T>>> routes;
+    private final List<IdentityProvider<T>> unrouted;
+
+    /**
+     * @param router extracts the routing key from the request
+     * @param providers all the identity providers that handle the request type
+     */
+    public IdentityProviderRoutingTable(IdentityProviderRouter<T> router,
+            Collection<? extends IdentityProvider<T>> providers) {
+        Comparator<IdentityProvider<T>> byPriority = Comparator.comparingInt(IdentityProvider<T>::priority).reversed();
+        List<IdentityProvider<T>> unrouted = new ArrayList<>();
+        Map<String, List<IdentityProvider<T>>> routes = new HashMap<>();
+        for (IdentityProvider<T> provider : providers) {
+            if (provider instanceof RoutedIdentityProvider) {
+                for (String key : ((RoutedIdentityProvider<T>) provider).getRoutingKeys()) {
+                    routes.computeIfAbsent(key, k -> new ArrayList<>()).add(provider);
+                }
+            } else {
+                unrouted.add(provider);
+            }
+        }
+        for (Map.Entry<String, List<IdentityProvider<T>>> route : routes.entrySet()) {
+            List<IdentityProvider<T>> keyProviders = route.getValue();
+            keyProviders.addAll(unrouted);
+            keyProviders.sort(byPriority);
+            route.setValue(Collections.unmodifiableList(keyProviders));
+        }
+        unrouted.sort(byPriority);
+        this.router = router;
+        this.routes = routes;
+        this.unrouted = Collections.unmodifiableList(unrouted);
+    }
+
+    /**
+     * @param request The authentication request
+     * @return The providers that the request should be offered to, in the order they should be tried
+     */
+    public List<IdentityProvider<T>> getProviders(T request) {
+        String key = router.getRoutingKey(request);
+        if (key == null) {
+            return unrouted;
+        }
+        List<IdentityProvider<T>> keyProviders = routes.get(key);
+        return keyProviders == null ? unrouted : keyProviders;
+    }
+
+    /**
+     * @return The routing keys that have at least one routed provider
+     */
+    public Collection<String> getRoutingKeys() {
+        return Collections.unmodifiableSet(routes.keySet());
+    }
+}
@@ -0,0 +1,166 @@
+package io.quarkus.security.identity;
+
+import java.security.Permission;
+import java.security.PermissionCollection;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import io.quarkus.security.HierarchicalPermission;
+import io.quarkus.security.credential.Credential;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Immutable {@link SecurityIdentity} whose permission checks are only based on the resolved {@link Permission}s.
+ */
+final class ImmutableSecurityIdentity implements SecurityIdentity {
+
+    private static final Uni<Boolean> GRANTED = Uni.createFrom().item(Boolean.TRUE);
+    private static final Uni<Boolean> DENIED = Uni.createFrom().item(Boolean.FALSE);
+
+    private final Principal principal;
+    private final boolean anonymous;
+    private final Set<String> roles;
+    private final Set<Permission> permissions;
+    private final PermissionCollection hierarchicalPermissions;
+    private final List<Permission> otherPermissions;
+    private final Set<Credential> credentials;
+    private final Map<String, Object> attributes;
+
+    ImmutableSecurityIdentity(String principalName, boolean anonymous, Set<String> roles, Set<Permission> permissions,
+            Set<Credential> credentials, Map<String, Object> attributes) {
+        this.principal = principalName == null ? null : new NamedPrincipal(principalName);
+        this.anonymous = anonymous;
+        this.roles = Collections.unmodifiableSet(roles);
+        this.permissions = Collections.unmodifiableSet(permissions);
+        this.credentials = Collections.unmodifiableSet(credentials);
+        this.attributes = Collections.unmodifiableMap(attributes);
+
+        List<HierarchicalPermission> hierarchical = new ArrayList<>();
+        List<Permission> other = new ArrayList<>();
+        for (Permission permission : permissions) {
+            if (permission instanceof HierarchicalPermission) {
+                hierarchical.add((HierarchicalPermission) permission);
+            } else {
+                other.add(permission);
+            }
+        }
+        this.hierarchicalPermissions = hierarchical.isEmpty() ? null : HierarchicalPermission.compile(hierarchical);
+        this.otherPermissions = other;
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return anonymous;
+    }
+
+    @Override
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+
+    @Override
+    public Set<Permission> getPermissions() {
+        return permissions;
+    }
+
+    @Override
+    public <T extends Credential> T getCredential(Class<T> credentialType) {
+        for (Credential credential : credentials) {
+            if (credentialType.isInstance(credential)) {
+                return credentialType.cast(credential);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Set<Credential> getCredentials() {
+        return credentials;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getAttribute(String name) {
+        return (T) LazyAttribute.resolve(attributes.get(name));
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Uni<Boolean> checkPermission(Permission permission) {
+        return checkPermissionBlocking(permission) ? GRANTED : DENIED;
+    }
+
+    @Override
+    public boolean checkPermissionBlocking(Permission permission) {
+        if (hierarchicalPermissions != null && hierarchicalPermissions.implies(permission)) {
+            return true;
+        }
+        for (Permission possessed : otherPermissions) {
+            if (possessed.implies(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Uni<Set<Permission>> checkPermissions(Collection<? extends Permission> permissions, int concurrency) {
+        Set<Permission> granted = new HashSet<>();
+        for (Permission permission : permissions) {
+            if (checkPermissionBlocking(permission)) {
+                granted.add(permission);
+            }
+        }
+        return Uni.createFrom().item(granted);
+    }
+
+    private static final class NamedPrincipal implements Principal {
+
+        private final String name;
+
+        private NamedPrincipal(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof NamedPrincipal && name.equals(((NamedPrincipal) o).name));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
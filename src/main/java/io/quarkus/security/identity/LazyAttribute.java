@@ -0,0 +1,138 @@
+package io.quarkus.security.identity;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import io.smallrye.mutiny.Uni;
+
+/**
+ * {@link SecurityIdentity} attribute value that is computed on the first access and then memoized for the lifetime
+ * of the identity. {@link SecurityIdentityAugmentor}s can use it for expensive attributes, such as profile lookups or
+ * derived claims, that most requests never read:
+ * <pre>
+ * {@code
+ * builder.addAttribute("profile", LazyAttribute.ofUni(() -> profileClient.getProfile(identity.getPrincipal().getName())));
+ * }
+ * </pre>
+ * The value is computed at most once, even if it is accessed concurrently. If the computation fails, the failure is
+ * propagated to the current callers only and the next access computes the value again.
+ * <p>
+ * Identities resolve lazy attributes in the {@link SecurityIdentity#getAttribute(String)} method, see
+ * {@link #resolve(Object)}, while the {@link SecurityIdentity#getAttributes()} map contains the lazy attributes as they
+ * are. Attributes computed by a {@link Uni} should be read with the {@link SecurityIdentity#getAttributeAsync(String)}
+ * method on the IO thread, as resolving them synchronously blocks.
+ *
+ * @param <T> The attribute value type
+ */
+public final class LazyAttribute<T> {
+
+    private static final Object UNRESOLVED = new Object();
+
+    private final Supplier<T> supplier;
+    private final Supplier<Uni<T>> uniSupplier;
+    private volatile Object value = UNRESOLVED;
+    private Uni<T> pending;
+
+    private LazyAttribute(Supplier<T> supplier, Supplier<Uni<T>> uniSupplier) {
+        this.supplier = supplier;
+        this.uniSupplier = uniSupplier;
+    }
+
+    /**
+     * @param supplier computes the attribute value synchronously
+     * @param <T> The attribute value type
+     * @return The lazy attribute
+     */
+    public static <T> LazyAttribute<T> of(Supplier<T> supplier) {
+        return new LazyAttribute<>(Objects.requireNonNull(supplier), null);
+    }
+
+    /**
+     * @param uniSupplier computes the attribute value asynchronously
+     * @param <T> The attribute value type
+     * @return The lazy attribute
+     */
+    public static <T> LazyAttribute<T> ofUni(Supplier<Uni<T>> uniSupplier) {
+        return new LazyAttribute<>(null, Objects.requireNonNull(uniSupplier));
+    }
+
+    /**
+     * @param value The attribute value, which may be a lazy attribute
+     * @return The resolved value if the {@code value} is a lazy attribute, otherwise the {@code value}
+     */
+    public static Object resolve(Object value) {
+        return value instanceof LazyAttribute ? ((LazyAttribute<?>) value).get() : value;
+    }
+
+    /**
+     * Returns the attribute value, and computes it if this is the first access. If the value is computed by a
+     * {@link Uni}, this method blocks until the {@link Uni} completes.
+     *
+     * @return The attribute value
+     */
+    @SuppressWarnings("unchecked")
+    public T get() {
+        Object resolved = value;
+        if (resolved != UNRESOLVED) {
+            return (T) resolved;
+        }
+        if (uniSupplier != null) {
+            return getAsync().await().indefinitely();
+        }
+        synchronized (this) {
+            if (value == UNRESOLVED) {
+                value = supplier.get();
+            }
+            return (T) value;
+        }
+    }
+
+    /**
+     * Returns the attribute value, and computes it if this is the first access. Concurrent callers share one
+     * computation.
+     *
+     * @return The future attribute value
+     */
+    @SuppressWarnings("unchecked")
+    public Uni<T> getAsync() {
+        Object resolved = value;
+        if (resolved != UNRESOLVED) {
+            return Uni.createFrom().item((T) resolved);
+        }
+        if (supplier != null) {
+            return Uni.createFrom().item(this::get);
+        }
+        synchronized (this) {
+            if (value != UNRESOLVED) {
+                return Uni.createFrom().item((T) value);
+            }
+            if (pending == null) {
+                pending = Uni.createFrom().deferred(uniSupplier::get)
+                        .onItemOrFailure().invoke((item, failure) -> complete(item, failure))
+                        .memoize().indefinitely();
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * @return true if the value has already been computed
+     */
+    public boolean isResolved() {
+        return value != UNRESOLVED;
+    }
+
+    private synchronized void complete(T item, Throwable failure) {
+        if (failure == null) {
+            value = item;
+        }
+        // the next access computes the value again if the computation failed
+        pending = null;
+    }
+
+    @Override
+    public String toString() {
+        Object resolved = value;
+        return resolved == UNRESOLVED ? "LazyAttribute[unresolved]" : "LazyAttribute[" + resolved + "]";
+    }
+}
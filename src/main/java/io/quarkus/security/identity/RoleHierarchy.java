@@ -0,0 +1,216 @@
+package io.quarkus.security.identity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Immutable role inheritance graph, such as "admin implies manager implies user", whose transitive closure is computed
+ * once when it is built. Instead of augmenting every identity with all the inherited roles, the identity is wrapped so
+ * that {@link SecurityIdentity#hasRole(String)} considers the inherited roles:
+ * <pre>
+ * {@code
+ * RoleHierarchy hierarchy = RoleHierarchy.builder()
+ *         .role("admin", "manager")
+ *         .role("manager", "user")
+ *         .build();
+ *
+ * SecurityIdentity identity = hierarchy.apply(identityWithAdminRole);
+ * identity.hasRole("user"); // true
+ * }
+ * </pre>
+ * Every role of the hierarchy is assigned a bit, and the closure of every role is stored as a bitset of the role itself
+ * and all the roles it implies. When an identity is wrapped, the closures of its roles are combined into a single
+ * bitset, so the role test is one map lookup and one bit test, and the inherited role names are never copied into the
+ * identity. The {@link SecurityIdentity#getRoles()} of the wrapped identity returns the held and the inherited roles,
+ * and is only expanded when it is first called.
+ * <p>
+ * This class is also a {@link SecurityIdentityAugmentor} with the lowest priority, so that it sees the roles added by
+ * all the other augmentors. Cycles are permitted, all the roles of a cycle imply each other.
+ */
+public final class RoleHierarchy implements SecurityIdentityAugmentor {
+
+    private final Map<String, Integer> indexes;
+    private final String[] roles;
+    private final long[][] closures;
+
+    private RoleHierarchy(Map<String, Set<String>> impliedRoles) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : impliedRoles.entrySet()) {
+            indexes.putIfAbsent(entry.getKey(), indexes.size());
+            for (String implied : entry.getValue()) {
+                indexes.putIfAbsent(implied, indexes.size());
+            }
+        }
+        this.indexes = indexes;
+        this.roles = new String[indexes.size()];
+        for (Map.Entry<String, Integer> entry : indexes.entrySet()) {
+            roles[entry.getValue()] = entry.getKey();
+        }
+        this.closures = new long[roles.length][];
+        for (int i = 0; i < roles.length; i++) {
+            closures[i] = closure(i, impliedRoles);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param heldRole The role held by an identity
+     * @param role The tested role
+     * @return true if the role is the held role or is inherited from it
+     */
+    public boolean implies(String heldRole, String role) {
+        if (heldRole.equals(role)) {
+            return true;
+        }
+        Integer held = indexes.get(heldRole);
+        Integer tested = indexes.get(role);
+        return held != null && tested != null && isSet(closures[held], tested);
+    }
+
+    /**
+     * @param role The role
+     * @return The role and all the roles it implies
+     */
+    public Set<String> getImpliedRoles(String role) {
+        Integer index = indexes.get(role);
+        return index == null ? Collections.singleton(role) : toRoles(closures[index], Collections.singleton(role));
+    }
+
+    /**
+     * Wraps the identity so that its role tests consider the inherited roles.
+     *
+     * @param identity The identity
+     * @return The wrapped identity, or the identity itself if none of its roles is part of this hierarchy
+     */
+    public SecurityIdentity apply(SecurityIdentity identity) {
+        if (identity instanceof HierarchicalRolesIdentity && ((HierarchicalRolesIdentity) identity).hierarchy == this) {
+            return identity;
+        }
+        long[] mask = null;
+        for (String role : identity.getRoles()) {
+            Integer index = indexes.get(role);
+            if (index != null) {
+                if (mask == null) {
+                    mask = new long[closures[index].length];
+                }
+                long[] closure = closures[index];
+                for (int i = 0; i < closure.length; i++) {
+                    mask[i] |= closure[i];
+                }
+            }
+        }
+        return mask == null ? identity : new HierarchicalRolesIdentity(identity, this, mask);
+    }
+
+    @Override
+    public int priority() {
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public Uni<SecurityIdentity> augment(SecurityIdentity identity, AuthenticationRequestContext context) {
+        return Uni.createFrom().item(apply(identity));
+    }
+
+    /**
+     * @return true if the role is part of this hierarchy and set in the mask
+     */
+    boolean hasRole(long[] mask, String role) {
+        Integer index = indexes.get(role);
+        return index != null && isSet(mask, index);
+    }
+
+    Set<String> toRoles(long[] mask, Set<String> otherRoles) {
+        Set<String> result = new LinkedHashSet<>(otherRoles);
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            while (bits != 0) {
+                result.add(roles[(word << 6) + Long.numberOfTrailingZeros(bits)]);
+                bits &= bits - 1;
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    private long[] closure(int role, Map<String, Set<String>> impliedRoles) {
+        long[] closure = new long[(roles.length + 63) >>> 6];
+        ArrayDeque<String> pending = new ArrayDeque<>();
+        set(closure, role);
+        pending.add(roles[role]);
+        while (!pending.isEmpty()) {
+            for (String implied : impliedRoles.getOrDefault(pending.poll(), Collections.emptySet())) {
+                int index = indexes.get(implied);
+                if (!isSet(closure, index)) {
+                    set(closure, index);
+                    pending.add(implied);
+                }
+            }
+        }
+        return closure;
+    }
+
+    private static boolean isSet(long[] bitset, int index) {
+        return (bitset[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bitset, int index) {
+        bitset[index >>> 6] |= 1L << index;
+    }
+
+    @Override
+    public String toString() {
+        List<String> inheritance = new ArrayList<>(roles.length);
+        for (int i = 0; i < roles.length; i++) {
+            inheritance.add(roles[i] + " -> " + toRoles(closures[i], Collections.emptySet()));
+        }
+        return "RoleHierarchy" + inheritance;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Set<String>> impliedRoles = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Declares the roles directly implied by the role. Roles implied by the implied roles do not need to be
+         * declared again.
+         *
+         * @param role The role
+         * @param impliedRoles The roles granted to every identity that holds the role
+         * @return this builder
+         */
+        public Builder role(String role, String... impliedRoles) {
+            return role(role, List.of(impliedRoles));
+        }
+
+        /**
+         * @param role The role
+         * @param impliedRoles The roles granted to every identity that holds the role
+         * @return this builder
+         * @see #role(String, String...)
+         */
+        public Builder role(String role, Collection<String> impliedRoles) {
+            this.impliedRoles.computeIfAbsent(role, r -> new LinkedHashSet<>()).addAll(impliedRoles);
+            return this;
+        }
+
+        public RoleHierarchy build() {
+            return new RoleHierarchy(impliedRoles);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.quarkus.security.identity;
+
+import java.util.Set;
+
+import io.quarkus.security.identity.request.AuthenticationRequest;
+
+/**
+ * {@link IdentityProvider} that only handles the requests with particular routing keys, such as a provider configured
+ * for one tenant. When an {@link IdentityProviderRouter} is registered for the request type, the
+ * {@link IdentityProviderManager} only offers the request to the routed providers whose routing keys contain
+ * the request routing key, and to the providers that are not routed.
+ *
+ * @param <T> The authentication request type
+ */
+public interface RoutedIdentityProvider<T extends AuthenticationRequest> extends IdentityProvider<T> {
+
+    /**
+     * @return The routing keys of the requests this provider handles, for example the tenant ids. The keys must not
+     *         change at runtime.
+     */
+    Set<String> getRoutingKeys();
+}
@@ -10,6 +10,9 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 /**
  * Identifies a method that must be run with a new {@link SecurityIdentity} that is valid only
  * for the duration of this method's execution.
+ * <p>
+ * The identity only depends on the {@link #user()} and the {@link #roles()}, therefore the same identity instance,
+ * provided by the {@link RunAsUserIdentities}, can be installed for every method invocation.
  */
 @Target(METHOD)
 @Retention(RUNTIME)
@@ -0,0 +1,56 @@
+package io.quarkus.security.identity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical immutable {@link SecurityIdentity}s of the {@link RunAsUser} methods. There is exactly one identity instance
+ * per distinct combination of the {@link RunAsUser#user()} and the {@link RunAsUser#roles()}, regardless of the role
+ * order, so the runtime can resolve the identity of every {@link RunAsUser} method once at startup and then install it
+ * for each invocation without building a new identity:
+ * <pre>
+ * {@code
+ * SecurityIdentity runAsIdentity = RunAsUserIdentities.get(method.getAnnotation(RunAsUser.class)); // at startup
+ *
+ * Uni<SecurityIdentity> previous = currentIdentityAssociation.swapIdentity(runAsIdentity);
+ * try {
+ *     return invocationContext.proceed();
+ * } finally {
+ *     currentIdentityAssociation.setIdentity(previous);
+ * }
+ * }
+ * </pre>
+ * The identities are never anonymous, have no credentials, attributes or permissions, and are kept for the lifetime
+ * of the application. They should only be created for the statically declared user and role combinations.
+ */
+public final class RunAsUserIdentities {
+
+    private static final Map<Map.Entry<String, Set<String>>, SecurityIdentity> IDENTITIES = new ConcurrentHashMap<>();
+
+    private RunAsUserIdentities() {
+    }
+
+    /**
+     * @param runAsUser The {@link RunAsUser} annotation instance
+     * @return The canonical identity of the annotation user and roles
+     */
+    public static SecurityIdentity get(RunAsUser runAsUser) {
+        return get(runAsUser.user(), runAsUser.roles());
+    }
+
+    /**
+     * @param user The principal name
+     * @param roles The roles
+     * @return The canonical identity of the user and roles
+     */
+    public static SecurityIdentity get(String user, String... roles) {
+        Set<String> roleSet = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(roles)));
+        return IDENTITIES.computeIfAbsent(Map.entry(user, roleSet),
+                key -> new ImmutableSecurityIdentity(user, false, roleSet, Collections.emptySet(),
+                        Collections.emptySet(), Collections.emptyMap()));
+    }
+}
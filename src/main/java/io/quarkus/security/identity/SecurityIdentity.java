@@ -2,11 +2,16 @@ package io.quarkus.security.identity;
 
 import java.security.Permission;
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import io.quarkus.security.StringPermission;
 import io.quarkus.security.credential.Credential;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 
 /**
@@ -24,6 +29,12 @@ public interface SecurityIdentity {
      */
     String USER_ATTRIBUTE = "quarkus.user";
 
+    /**
+     * The attribute name that is used to store the time the security identity expires at, as a {@link Number} of
+     * seconds since the epoch, for example the expiration time of the token the identity was created for.
+     */
+    String EXPIRE_TIME_ATTRIBUTE = "quarkus.identity.expire-time";
+
     /**
      * @return the {@link Principal} representing the current security identity.
      */
@@ -61,6 +72,8 @@ public interface SecurityIdentity {
 
     /**
      * Checks if a security identity has a given role. These roles must be resolvable in advance for every request.
+     * Roles inherited from other roles should be resolved with the {@link RoleHierarchy} rather than added to every
+     * identity.
      *
      * @return <code>true</code> if the identity has the specified role.
      */
@@ -104,6 +117,9 @@ public interface SecurityIdentity {
      * The `quarkus.` namespace is reserved
      * <p>
      * The root
+     * <p>
+     * If the attribute value is a {@link LazyAttribute}, implementations should return the resolved value,
+     * see {@link LazyAttribute#resolve(Object)}.
      *
      * @param name The attribute name
      * @param <T>  The type of the attribute
@@ -112,7 +128,24 @@ public interface SecurityIdentity {
     <T> T getAttribute(String name);
 
     /**
-     * @return All the request attributes
+     * Gets an attribute from the identity without blocking, even if the attribute is a {@link LazyAttribute} that is
+     * computed by a {@link Uni}.
+     *
+     * @param name The attribute name
+     * @param <T>  The type of the attribute
+     * @return Uni that will resolve to the attribute value
+     */
+    @SuppressWarnings("unchecked")
+    default <T> Uni<T> getAttributeAsync(String name) {
+        Object value = getAttributes().get(name);
+        if (value instanceof LazyAttribute) {
+            return ((LazyAttribute<T>) value).getAsync();
+        }
+        return Uni.createFrom().item((T) value);
+    }
+
+    /**
+     * @return All the request attributes, including unresolved {@link LazyAttribute}s
      */
     Map<String, Object> getAttributes();
 
@@ -126,6 +159,47 @@ public interface SecurityIdentity {
      */
     Uni<Boolean> checkPermission(Permission permission);
 
+    /**
+     * Checks which of the permissions the security identity holds, with at most 16 concurrent
+     * {@link #checkPermission(Permission)} invocations unless the permissions are checked together.
+     *
+     * @param permissions The permissions
+     * @return Uni that will resolve to the granted permissions
+     * @see #checkPermissions(Collection, int)
+     */
+    default Uni<Set<Permission>> checkPermissions(Collection<? extends Permission> permissions) {
+        return checkPermissions(permissions, 16);
+    }
+
+    /**
+     * Checks which of the permissions the security identity holds, for example to check the permissions of many
+     * resources with a single remote call. Implementations should override this method when the permissions can be
+     * checked together. By default, the permissions are checked one by one with the
+     * {@link #checkPermission(Permission)} method, and at most {@code concurrency} checks are in progress at once.
+     * <p>
+     * A permission whose check fails is not granted.
+     *
+     * @param permissions The permissions
+     * @param concurrency maximum number of concurrent {@link #checkPermission(Permission)} invocations
+     * @return Uni that will resolve to the granted permissions
+     */
+    default Uni<Set<Permission>> checkPermissions(Collection<? extends Permission> permissions, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException(String.format("Invalid concurrency %d", concurrency));
+        }
+        if (permissions.isEmpty()) {
+            return Uni.createFrom().item(Collections.emptySet());
+        }
+        List<Permission> checked = new ArrayList<>(permissions);
+        return Multi.createFrom().iterable(checked)
+                .onItem().transformToUni(permission -> Uni.createFrom().deferred(() -> checkPermission(permission))
+                        .onFailure().recoverWithItem(Boolean.FALSE)
+                        // a denied permission is not emitted
+                        .map(granted -> Boolean.TRUE.equals(granted) ? permission : null))
+                .merge(concurrency)
+                .collect().asSet();
+    }
+
     /**
      * Checks if a security identity holds a given permission.
      * <p>
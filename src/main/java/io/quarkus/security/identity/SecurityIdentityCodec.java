@@ -0,0 +1,484 @@
+package io.quarkus.security.identity;
+
+import java.io.ByteArrayInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Permission;
+import java.security.Principal;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.quarkus.security.HierarchicalPermission;
+import io.quarkus.security.StringPermission;
+import io.quarkus.security.credential.CertificateCredential;
+import io.quarkus.security.credential.Credential;
+import io.quarkus.security.credential.DirectPasswordCredential;
+import io.quarkus.security.credential.PasswordCredential;
+import io.quarkus.security.credential.TokenCredential;
+
+/**
+ * Compact, versioned binary representation of the {@link SecurityIdentity} that can be used to replicate authenticated
+ * identities across nodes, for example in a shared session cache.
+ * <p>
+ * All the strings (the principal name, roles, permission names and actions, attribute names and string attribute values)
+ * are written only once into a string table and referenced by their index, and all the lengths and indexes are written as
+ * variable-length integers. Only the following parts of the identity are encoded:
+ * <ul>
+ * <li>the {@link Principal#getName()} and the {@link SecurityIdentity#isAnonymous()} flag</li>
+ * <li>all the {@link SecurityIdentity#getRoles()}</li>
+ * <li>the {@link SecurityIdentity#getPermissions()} that are instances of the {@link StringPermission}
+ * or the {@link HierarchicalPermission}</li>
+ * <li>optionally, the {@link TokenCredential}, {@link PasswordCredential} and {@link CertificateCredential} credentials</li>
+ * <li>the {@link SecurityIdentity#getAttributes()} with the {@link String}, {@link Boolean}, {@link Integer}
+ * and {@link Long} values, including the {@link LazyAttribute}s that have already been resolved</li>
+ * </ul>
+ * Permissions, credentials and attributes of other types are skipped. Permission checks that can not be represented
+ * as {@link Permission} instances are not part of the encoded form, therefore identities that rely on them must be
+ * augmented again after they have been decoded.
+ */
+public final class SecurityIdentityCodec {
+
+    /**
+     * The current version of the binary format, written as the first byte of every encoded identity.
+     */
+    public static final byte VERSION = 1;
+
+    private static final int FLAG_ANONYMOUS = 1;
+    private static final int FLAG_CREDENTIALS = 1 << 1;
+
+    private static final byte STRING_PERMISSION = 0;
+    private static final byte HIERARCHICAL_PERMISSION = 1;
+
+    private static final byte TOKEN_CREDENTIAL = 0;
+    private static final byte PASSWORD_CREDENTIAL = 1;
+    private static final byte CERTIFICATE_CREDENTIAL = 2;
+
+    private static final byte STRING_ATTRIBUTE = 0;
+    private static final byte BOOLEAN_ATTRIBUTE = 1;
+    private static final byte INTEGER_ATTRIBUTE = 2;
+    private static final byte LONG_ATTRIBUTE = 3;
+
+    private SecurityIdentityCodec() {
+    }
+
+    /**
+     * Encodes the security identity.
+     *
+     * @param identity The identity
+     * @param includeCredentials whether the identity credentials should be encoded; credentials contain secrets, therefore
+     *        they should only be included if the encoded identity is kept in a secure storage
+     * @return A buffer positioned at the beginning of the encoded identity
+     */
+    public static ByteBuffer encode(SecurityIdentity identity, boolean includeCredentials) {
+        final StringTable strings = new StringTable();
+        final Writer body = new Writer(256);
+
+        Principal principal = identity.getPrincipal();
+        body.writeVarInt(principal == null ? 0 : strings.indexOf(principal.getName()) + 1);
+
+        Set<String> roles = identity.getRoles();
+        body.writeVarInt(roles.size());
+        for (String role : roles) {
+            body.writeVarInt(strings.indexOf(role));
+        }
+
+        List<Permission> permissions = new ArrayList<>();
+        for (Permission permission : identity.getPermissions()) {
+            if (permission instanceof StringPermission || permission instanceof HierarchicalPermission) {
+                permissions.add(permission);
+            }
+        }
+        body.writeVarInt(permissions.size());
+        for (Permission permission : permissions) {
+            body.writeByte(permission instanceof StringPermission ? STRING_PERMISSION : HIERARCHICAL_PERMISSION);
+            body.writeVarInt(strings.indexOf(permission.getName()));
+            String actions = permission.getActions();
+            if (actions == null) {
+                body.writeVarInt(0);
+            } else {
+                String[] actionArray = actions.split(StringPermission.ACTIONS_SEPARATOR);
+                body.writeVarInt(actionArray.length);
+                for (String action : actionArray) {
+                    body.writeVarInt(strings.indexOf(action));
+                }
+            }
+        }
+
+        if (includeCredentials) {
+            List<Credential> credentials = new ArrayList<>();
+            for (Credential credential : identity.getCredentials()) {
+                if (credential instanceof TokenCredential || credential instanceof PasswordCredential
+                        || credential instanceof CertificateCredential) {
+                    credentials.add(credential);
+                }
+            }
+            body.writeVarInt(credentials.size());
+            for (Credential credential : credentials) {
+                writeCredential(credential, body, strings);
+            }
+        }
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> attribute : identity.getAttributes().entrySet()) {
+            Object value = attribute.getValue();
+            if (value instanceof LazyAttribute && ((LazyAttribute<?>) value).isResolved()) {
+                value = ((LazyAttribute<?>) value).get();
+            }
+            if (value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Long) {
+                attributes.put(attribute.getKey(), value);
+            }
+        }
+        body.writeVarInt(attributes.size());
+        for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+            body.writeVarInt(strings.indexOf(attribute.getKey()));
+            Object value = attribute.getValue();
+            if (value instanceof String) {
+                body.writeByte(STRING_ATTRIBUTE);
+                body.writeVarInt(strings.indexOf((String) value));
+            } else if (value instanceof Boolean) {
+                body.writeByte(BOOLEAN_ATTRIBUTE);
+                body.writeByte((Boolean) value ? 1 : 0);
+            } else if (value instanceof Integer) {
+                body.writeByte(INTEGER_ATTRIBUTE);
+                body.writeVarLong(zigZag((Integer) value));
+            } else {
+                body.writeByte(LONG_ATTRIBUTE);
+                body.writeVarLong(zigZag((Long) value));
+            }
+        }
+
+        final Writer result = new Writer(body.size() + strings.size() * 16 + 8);
+        result.writeByte(VERSION);
+        result.writeByte((identity.isAnonymous() ? FLAG_ANONYMOUS : 0) | (includeCredentials ? FLAG_CREDENTIALS : 0));
+        result.writeVarInt(strings.size());
+        for (String string : strings.strings) {
+            result.writeBytes(string.getBytes(StandardCharsets.UTF_8));
+        }
+        result.writeRaw(body);
+        return result.toByteBuffer();
+    }
+
+    /**
+     * Decodes the security identity from its binary representation created with the
+     * {@link #encode(SecurityIdentity, boolean)} method. The buffer content is read in place without copying it into
+     * an intermediate array, and the buffer position is advanced past the encoded identity.
+     * <p>
+     * Decoded {@link TokenCredential}s are backed by the buffer content, therefore the buffer must not be modified
+     * while the decoded identity is in use.
+     *
+     * @param buffer The buffer positioned at the beginning of the encoded identity
+     * @return An immutable security identity
+     * @throws IllegalArgumentException if the buffer does not contain a valid encoded identity of a supported version
+     */
+    public static SecurityIdentity decode(ByteBuffer buffer) {
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported encoded security identity version: " + version);
+            }
+            final int flags = buffer.get();
+
+            final String[] strings = new String[readCount(buffer)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(buffer);
+            }
+
+            final int principalIndex = readVarInt(buffer);
+            final String principalName = principalIndex == 0 ? null : strings[principalIndex - 1];
+
+            final int roleCount = readCount(buffer);
+            final Set<String> roles = new HashSet<>(mapCapacity(roleCount));
+            for (int i = 0; i < roleCount; i++) {
+                roles.add(strings[readVarInt(buffer)]);
+            }
+
+            final int permissionCount = readCount(buffer);
+            final Set<Permission> permissions = new HashSet<>(mapCapacity(permissionCount));
+            for (int i = 0; i < permissionCount; i++) {
+                byte kind = buffer.get();
+                String name = strings[readVarInt(buffer)];
+                String[] actions = new String[readCount(buffer)];
+                for (int j = 0; j < actions.length; j++) {
+                    actions[j] = strings[readVarInt(buffer)];
+                }
+                if (kind == STRING_PERMISSION) {
+                    permissions.add(new StringPermission(name, actions));
+                } else if (kind == HIERARCHICAL_PERMISSION) {
+                    permissions.add(new HierarchicalPermission(name, actions));
+                } else {
+                    throw new IllegalArgumentException("Unknown encoded permission type: " + kind);
+                }
+            }
+
+            final Set<Credential> credentials;
+            if ((flags & FLAG_CREDENTIALS) != 0) {
+                final int credentialCount = readCount(buffer);
+                credentials = new HashSet<>(mapCapacity(credentialCount));
+                for (int i = 0; i < credentialCount; i++) {
+                    credentials.add(readCredential(buffer, strings));
+                }
+            } else {
+                credentials = Set.of();
+            }
+
+            final int attributeCount = readCount(buffer);
+            final Map<String, Object> attributes = new HashMap<>(mapCapacity(attributeCount));
+            for (int i = 0; i < attributeCount; i++) {
+                String name = strings[readVarInt(buffer)];
+                byte kind = buffer.get();
+                switch (kind) {
+                    case STRING_ATTRIBUTE:
+                        attributes.put(name, strings[readVarInt(buffer)]);
+                        break;
+                    case BOOLEAN_ATTRIBUTE:
+                        attributes.put(name, buffer.get() != 0);
+                        break;
+                    case INTEGER_ATTRIBUTE:
+                        attributes.put(name, (int) unZigZag(readVarLong(buffer)));
+                        break;
+                    case LONG_ATTRIBUTE:
+                        attributes.put(name, unZigZag(readVarLong(buffer)));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown encoded attribute type: " + kind);
+                }
+            }
+
+            return new ImmutableSecurityIdentity(principalName, (flags & FLAG_ANONYMOUS) != 0, roles, permissions,
+                    credentials, attributes);
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed encoded security identity", e);
+        }
+    }
+
+    private static void writeCredential(Credential credential, Writer writer, StringTable strings) {
+        if (credential instanceof TokenCredential) {
+            TokenCredential token = (TokenCredential) credential;
+            writer.writeByte(TOKEN_CREDENTIAL);
+            writer.writeVarInt(token.getType() == null ? 0 : strings.indexOf(token.getType()) + 1);
+            ByteBuffer tokenBytes = token.getTokenBytes();
+            if (tokenBytes == null) {
+                writer.writeVarInt(0);
+            } else {
+                writer.writeVarInt(tokenBytes.remaining() + 1);
+                writer.writeBuffer(tokenBytes);
+            }
+        } else if (credential instanceof PasswordCredential) {
+            writer.writeByte(PASSWORD_CREDENTIAL);
+            ByteBuffer password = StandardCharsets.UTF_8.encode(((PasswordCredential) credential).getPasswordBuffer());
+            writer.writeVarInt(password.remaining());
+            writer.writeBuffer(password);
+            if (password.hasArray()) {
+                Arrays.fill(password.array(), (byte) 0);
+            }
+        } else {
+            writer.writeByte(CERTIFICATE_CREDENTIAL);
+            try {
+                writer.writeBytes(((CertificateCredential) credential).getCertificate().getEncoded());
+            } catch (CertificateEncodingException e) {
+                throw new IllegalArgumentException("Failed to encode the certificate credential", e);
+            }
+        }
+    }
+
+    private static Credential readCredential(ByteBuffer buffer, String[] strings) {
+        byte kind = buffer.get();
+        switch (kind) {
+            case TOKEN_CREDENTIAL:
+                int typeIndex = readVarInt(buffer);
+                String type = typeIndex == 0 ? null : strings[typeIndex - 1];
+                int tokenLength = readVarInt(buffer);
+                if (tokenLength == 0) {
+                    return new TokenCredential(null, type);
+                }
+                return TokenCredential.ofBytes(slice(buffer, tokenLength - 1), type);
+            case PASSWORD_CREDENTIAL:
+                ByteBuffer passwordBytes = slice(buffer, readVarInt(buffer));
+                // the decoded characters are moved off the heap and wiped by the credential
+                return new DirectPasswordCredential(StandardCharsets.UTF_8.decode(passwordBytes));
+            case CERTIFICATE_CREDENTIAL:
+                ByteBuffer der = slice(buffer, readVarInt(buffer));
+                try {
+                    byte[] encoded = new byte[der.remaining()];
+                    der.get(encoded);
+                    return new CertificateCredential((X509Certificate) CertificateFactory.getInstance("X.509")
+                            .generateCertificate(new ByteArrayInputStream(encoded)));
+                } catch (CertificateException e) {
+                    throw new IllegalArgumentException("Failed to decode the certificate credential", e);
+                }
+            default:
+                throw new IllegalArgumentException("Unknown encoded credential type: " + kind);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final int length = readVarInt(buffer);
+        if (buffer.hasArray()) {
+            if (length > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            String result = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return result;
+        }
+        return StandardCharsets.UTF_8.decode(slice(buffer, length)).toString();
+    }
+
+    /**
+     * @return a view of the next {@code length} bytes of the buffer; the buffer position is advanced past them
+     */
+    private static ByteBuffer slice(ByteBuffer buffer, int length) {
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    /**
+     * @return the number of the following elements, each of them is encoded with at least one byte
+     */
+    private static int readCount(ByteBuffer buffer) {
+        int count = readVarInt(buffer);
+        if (count > buffer.remaining()) {
+            // reject the count before allocating the elements
+            throw new IllegalArgumentException("Malformed encoded security identity: count out of range");
+        }
+        return count;
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        long value = readVarLong(buffer);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Malformed encoded security identity: length or index out of range");
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed encoded security identity: variable-length integer is too long");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int mapCapacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    private static final class StringTable {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        int indexOf(String string) {
+            Integer index = indexes.get(string);
+            if (index == null) {
+                index = strings.size();
+                indexes.put(string, index);
+                strings.add(string);
+            }
+            return index;
+        }
+
+        int size() {
+            return strings.size();
+        }
+    }
+
+    private static final class Writer {
+
+        private byte[] bytes;
+        private int size;
+
+        Writer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void writeByte(int b) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        /**
+         * Writes length of the byte array followed by the array content.
+         */
+        void writeBytes(byte[] value) {
+            writeVarInt(value.length);
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        void writeBuffer(ByteBuffer value) {
+            int length = value.remaining();
+            ensureCapacity(length);
+            value.get(bytes, size, length);
+            size += length;
+        }
+
+        void writeRaw(Writer other) {
+            ensureCapacity(other.size);
+            System.arraycopy(other.bytes, 0, bytes, size, other.size);
+            size += other.size;
+            // the other writer may contain credentials
+            Arrays.fill(other.bytes, 0, other.size, (byte) 0);
+        }
+
+        int size() {
+            return size;
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > bytes.length) {
+                byte[] newBytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+                Arrays.fill(bytes, 0, size, (byte) 0);
+                bytes = newBytes;
+            }
+        }
+    }
+}
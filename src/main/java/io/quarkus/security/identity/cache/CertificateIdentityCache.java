@@ -0,0 +1,168 @@
+package io.quarkus.security.identity.cache;
+
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.quarkus.security.credential.CertificateCredential;
+import io.quarkus.security.credential.CredentialFingerprint;
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.request.CertificateAuthenticationRequest;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Bounded cache of the {@link SecurityIdentity}s created for validated client certificates, keyed by the certificate
+ * {@link CredentialFingerprint}. It allows {@link IdentityProvider}s that handle the
+ * {@link CertificateAuthenticationRequest} to skip the certificate chain validation, revocation checks and role mapping
+ * when the same client certificate is presented repeatedly, for example with mutual TLS between services:
+ * <pre>
+ * {@code
+ * public Uni<SecurityIdentity> authenticate(CertificateAuthenticationRequest request, AuthenticationRequestContext context) {
+ *     return cache.authenticate(request, () -> validateAndMapRoles(request, context));
+ * }
+ * }
+ * </pre>
+ * A cached identity expires when the certificate {@link X509Certificate#getNotAfter()} is reached or when the maximum
+ * age of the cache entry is reached, whichever comes first. Revoked certificates must be invalidated explicitly with
+ * the {@link #invalidate(X509Certificate)} or the {@link #invalidate(CredentialFingerprint)} method, or through
+ * the {@link InvalidationBus}.
+ * <p>
+ * Identities of the validations that were in progress when the cache was invalidated are not cached, so that
+ * a revoked certificate is never cached by a validation that started before the revocation.
+ * <p>
+ * This cache is only suitable when the identity exclusively depends on the certificate, and not on other
+ * request attributes.
+ */
+public final class CertificateIdentityCache implements InvalidationListener {
+
+    private final ExpiringCache<CredentialFingerprint, SecurityIdentity> cache;
+    private final long maximumAgeMillis;
+    /**
+     * Incremented by every invalidation, identities validated in an older generation are not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param maximumSize maximum number of cached identities
+     * @param maximumAge maximum duration an identity is cached for, even if the certificate is still valid
+     */
+    public CertificateIdentityCache(int maximumSize, Duration maximumAge) {
+        this.cache = new ExpiringCache<>(maximumSize);
+        this.maximumAgeMillis = maximumAge.toMillis();
+    }
+
+    /**
+     * Returns the cached identity, or authenticates the request with the {@code authenticator} and caches the
+     * resulting identity. Failed authentications and null identities are not cached.
+     *
+     * @param request The authentication request
+     * @param authenticator Authenticates the request if no identity is cached for the request certificate
+     * @return The future security identity
+     */
+    public Uni<SecurityIdentity> authenticate(CertificateAuthenticationRequest request,
+            Supplier<Uni<SecurityIdentity>> authenticator) {
+        return Uni.createFrom().deferred(() -> {
+            final CertificateCredential credential = request.getCertificate();
+            final SecurityIdentity cached = get(credential);
+            if (cached != null) {
+                return Uni.createFrom().item(cached);
+            }
+            final long validatedGeneration = generation.get();
+            return authenticator.get().invoke(identity -> {
+                if (identity != null) {
+                    put(credential, identity, validatedGeneration);
+                }
+            });
+        });
+    }
+
+    /**
+     * @param credential The certificate credential
+     * @return The cached identity, or null if no identity is cached for the certificate
+     */
+    public SecurityIdentity get(CertificateCredential credential) {
+        CredentialFingerprint fingerprint = credential.getFingerprint();
+        return fingerprint == null ? null : cache.get(fingerprint, System.currentTimeMillis());
+    }
+
+    /**
+     * Caches the identity created for the validated certificate.
+     *
+     * @param credential The certificate credential
+     * @param identity The identity
+     */
+    public void put(CertificateCredential credential, SecurityIdentity identity) {
+        put(credential, identity, generation.get());
+    }
+
+    private void put(CertificateCredential credential, SecurityIdentity identity, long validatedGeneration) {
+        if (generation.get() != validatedGeneration) {
+            return;
+        }
+        CredentialFingerprint fingerprint = credential.getFingerprint();
+        if (fingerprint == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = credential.getCertificate().getNotAfter().getTime();
+        if (expiresAt <= now) {
+            return;
+        }
+        cache.put(fingerprint, identity, now, Math.min(expiresAt, now + maximumAgeMillis));
+        if (generation.get() != validatedGeneration) {
+            // invalidated concurrently with the put
+            cache.remove(fingerprint, identity);
+        }
+    }
+
+    /**
+     * Removes the identity cached for the certificate, for example when the certificate has been revoked.
+     *
+     * @param certificate The certificate
+     */
+    public void invalidate(X509Certificate certificate) {
+        invalidate(new CertificateCredential(certificate).getFingerprint());
+    }
+
+    /**
+     * Removes the identity cached for the certificate with the given fingerprint.
+     *
+     * @param fingerprint The certificate fingerprint
+     */
+    public void invalidate(CredentialFingerprint fingerprint) {
+        generation.incrementAndGet();
+        cache.remove(fingerprint);
+    }
+
+    @Override
+    public void invalidate(InvalidationEvent event) {
+        switch (event.getKind()) {
+            case ALL:
+                invalidateAll();
+                break;
+            case CREDENTIAL:
+                invalidate(event.getFingerprint());
+                break;
+            default:
+                generation.incrementAndGet();
+                cache.removeIf((fingerprint, identity) -> event.appliesTo(identity));
+        }
+    }
+
+    /**
+     * Removes all the cached identities, for example when a certificate revocation list has been updated.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * @return number of cached identities, including identities that have expired but have not been evicted yet
+     */
+    public int size() {
+        return cache.size();
+    }
+}
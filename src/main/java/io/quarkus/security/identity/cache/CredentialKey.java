@@ -0,0 +1,93 @@
+package io.quarkus.security.identity.cache;
+
+import java.util.Objects;
+
+import io.quarkus.security.credential.CredentialFingerprint;
+import io.quarkus.security.identity.request.AuthenticationRequest;
+import io.quarkus.security.identity.request.CertificateAuthenticationRequest;
+import io.quarkus.security.identity.request.TokenAuthenticationRequest;
+import io.quarkus.security.identity.request.TrustedAuthenticationRequest;
+import io.quarkus.security.identity.request.UsernamePasswordAuthenticationRequest;
+
+/**
+ * Cache keys derived from the authentication request credentials.
+ */
+final class CredentialKey {
+
+    private CredentialKey() {
+    }
+
+    /**
+     * @return the credential fingerprint, combined with the username for the {@link UsernamePasswordAuthenticationRequest},
+     *         or null if the request type is not supported
+     */
+    static Object of(AuthenticationRequest request) {
+        if (request instanceof TokenAuthenticationRequest) {
+            TokenAuthenticationRequest tokenRequest = (TokenAuthenticationRequest) request;
+            return tokenRequest.getToken() == null ? null : tokenRequest.getToken().getFingerprint();
+        }
+        if (request instanceof UsernamePasswordAuthenticationRequest) {
+            UsernamePasswordAuthenticationRequest passwordRequest = (UsernamePasswordAuthenticationRequest) request;
+            if (passwordRequest.getUsername() == null || passwordRequest.getPassword() == null) {
+                return null;
+            }
+            CredentialFingerprint fingerprint = passwordRequest.getPassword().getFingerprint();
+            return fingerprint == null ? null : new UsernameKey(passwordRequest.getUsername(), fingerprint);
+        }
+        if (request instanceof CertificateAuthenticationRequest) {
+            CertificateAuthenticationRequest certificateRequest = (CertificateAuthenticationRequest) request;
+            return certificateRequest.getCertificate() == null ? null
+                    : certificateRequest.getCertificate().getFingerprint();
+        }
+        return null;
+    }
+
+    /**
+     * @return the principal name if it is known before the authentication, or null
+     */
+    static String principalName(AuthenticationRequest request) {
+        if (request instanceof UsernamePasswordAuthenticationRequest) {
+            return ((UsernamePasswordAuthenticationRequest) request).getUsername();
+        }
+        if (request instanceof TrustedAuthenticationRequest) {
+            return ((TrustedAuthenticationRequest) request).getPrincipal();
+        }
+        return null;
+    }
+
+    static boolean hasFingerprint(Object key, CredentialFingerprint fingerprint) {
+        return fingerprint.equals(key) || key instanceof UsernameKey && ((UsernameKey) key).fingerprint.equals(fingerprint);
+    }
+
+    static boolean hasUsername(Object key, String username) {
+        return key instanceof UsernameKey && ((UsernameKey) key).username.equals(username);
+    }
+
+    private static final class UsernameKey {
+
+        private final String username;
+        private final CredentialFingerprint fingerprint;
+
+        private UsernameKey(String username, CredentialFingerprint fingerprint) {
+            this.username = username;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof UsernameKey)) {
+                return false;
+            }
+            UsernameKey that = (UsernameKey) o;
+            return username.equals(that.username) && fingerprint.equals(that.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(username, fingerprint);
+        }
+    }
+}
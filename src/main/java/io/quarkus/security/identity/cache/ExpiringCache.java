@@ -0,0 +1,122 @@
+package io.quarkus.security.identity.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+
+/**
+ * Bounded map whose entries expire at a given time. Lookups never block. When the maximum size is reached,
+ * expired entries are evicted first, otherwise the entry that expires soonest among a small sample of entries is evicted.
+ */
+final class ExpiringCache<K, V> {
+
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maximumSize;
+
+    ExpiringCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum cache size must be greater than zero");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * @return entry that is not expired at the {@code now} time, or null
+     */
+    Entry<V> getEntry(K key, long now) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= now) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    V get(K key, long now) {
+        Entry<V> entry = getEntry(key, now);
+        return entry == null ? null : entry.value;
+    }
+
+    void put(K key, V value, long now, long expiresAt) {
+        if (entries.size() >= maximumSize && !entries.containsKey(key)) {
+            evict(now);
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    /**
+     * @return value that is not expired at the {@code now} time, or the {@code value} if there is no such value
+     */
+    V putIfAbsent(K key, V value, long now, long expiresAt) {
+        if (entries.size() >= maximumSize && !entries.containsKey(key)) {
+            evict(now);
+        }
+        Entry<V> created = new Entry<>(value, expiresAt);
+        return entries.compute(key, (k, existing) -> existing == null || existing.expiresAt <= now ? created : existing)
+                .value;
+    }
+
+    V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Removes the entry only if it still maps to the {@code value}, so that a newer value is never removed.
+     */
+    void remove(K key, V value) {
+        entries.computeIfPresent(key, (k, existing) -> existing.value == value ? null : existing);
+    }
+
+    void removeIf(BiPredicate<? super K, ? super V> predicate) {
+        entries.entrySet().removeIf(entry -> predicate.test(entry.getKey(), entry.getValue().value));
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        K candidate = null;
+        long candidateExpiresAt = Long.MAX_VALUE;
+        int sampled = 0;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && sampled < EVICTION_SAMPLE_SIZE) {
+            Map.Entry<K, Entry<V>> next = iterator.next();
+            long expiresAt = next.getValue().expiresAt;
+            if (expiresAt <= now) {
+                iterator.remove();
+                return;
+            }
+            if (expiresAt < candidateExpiresAt) {
+                candidate = next.getKey();
+                candidateExpiresAt = expiresAt;
+            }
+            sampled++;
+        }
+        if (candidate != null) {
+            entries.remove(candidate);
+        }
+    }
+
+    static final class Entry<V> {
+
+        final V value;
+        final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
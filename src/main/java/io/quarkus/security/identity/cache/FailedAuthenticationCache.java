@@ -0,0 +1,203 @@
+package io.quarkus.security.identity.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.quarkus.security.AuthenticationFailedException;
+import io.quarkus.security.credential.CredentialFingerprint;
+import io.quarkus.security.identity.IdentityProviderManager;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.request.AuthenticationRequest;
+import io.quarkus.security.identity.request.CertificateAuthenticationRequest;
+import io.quarkus.security.identity.request.TokenAuthenticationRequest;
+import io.quarkus.security.identity.request.UsernamePasswordAuthenticationRequest;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Bounded cache of recently rejected credentials. Requests that repeat credentials rejected with the
+ * {@link AuthenticationFailedException} within the time-to-live are rejected immediately, without being offered to
+ * any identity provider:
+ * <pre>
+ * {@code
+ * public Uni<SecurityIdentity> authenticate(AuthenticationRequest request) {
+ *     return failedAuthenticationCache.authenticate(request, () -> delegate.authenticate(request));
+ * }
+ * }
+ * </pre>
+ * Credentials are identified by their {@link CredentialFingerprint}, combined with the username for the
+ * {@link UsernamePasswordAuthenticationRequest}, so that other users with the same invalid password are not affected.
+ * Only requests of the {@link TokenAuthenticationRequest}, {@link UsernamePasswordAuthenticationRequest} and
+ * {@link CertificateAuthenticationRequest} types are cached; failures caused by anything but invalid credentials,
+ * such as an unavailable identity store, are never cached.
+ * <p>
+ * Failed attempts, including the attempts rejected by this cache, are also counted per principal name when the
+ * principal name is known before the authentication, and reported to the {@link ThrottlingHook}.
+ */
+public final class FailedAuthenticationCache implements InvalidationListener {
+
+    private final ExpiringCache<Object, Boolean> failedCredentials;
+    private final ExpiringCache<String, AtomicInteger> failureCounters;
+    private final long timeToLiveMillis;
+    private final ThrottlingHook throttlingHook;
+
+    /**
+     * @param maximumSize maximum number of cached credentials and maximum number of counted principals
+     * @param timeToLive how long the rejected credentials are cached and how long the per-principal failure count window
+     *        lasts
+     */
+    public FailedAuthenticationCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, null);
+    }
+
+    /**
+     * @param maximumSize maximum number of cached credentials and maximum number of counted principals
+     * @param timeToLive how long the rejected credentials are cached and how long the per-principal failure count window
+     *        lasts
+     * @param throttlingHook receives every failed attempt, or null
+     */
+    public FailedAuthenticationCache(int maximumSize, Duration timeToLive, ThrottlingHook throttlingHook) {
+        this.failedCredentials = new ExpiringCache<>(maximumSize);
+        this.failureCounters = new ExpiringCache<>(maximumSize);
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.throttlingHook = throttlingHook;
+    }
+
+    /**
+     * Fails with the {@link AuthenticationFailedException} if the request credentials have been rejected recently,
+     * otherwise authenticates the request with the {@code authenticator} and remembers the credentials if they are
+     * rejected.
+     *
+     * @param request The authentication request
+     * @param authenticator Authenticates the request, usually by delegating to the {@link IdentityProviderManager}
+     * @return The future security identity
+     */
+    public Uni<SecurityIdentity> authenticate(AuthenticationRequest request,
+            Supplier<Uni<SecurityIdentity>> authenticator) {
+        return Uni.createFrom().deferred(() -> {
+            if (isRejected(request)) {
+                return Uni.createFrom().failure(new AuthenticationFailedException());
+            }
+            return authenticator.get().onFailure(AuthenticationFailedException.class)
+                    .invoke(() -> recordFailure(request));
+        });
+    }
+
+    /**
+     * Checks whether the request credentials have been rejected recently. If they have, the attempt is counted as failed.
+     *
+     * @param request The authentication request
+     * @return true if the request should be rejected without authenticating it
+     */
+    public boolean isRejected(AuthenticationRequest request) {
+        Object key = CredentialKey.of(request);
+        if (key == null || failedCredentials.get(key, System.currentTimeMillis()) == null) {
+            return false;
+        }
+        countFailure(request, true);
+        return true;
+    }
+
+    /**
+     * Remembers that the request credentials have been rejected.
+     *
+     * @param request The authentication request
+     */
+    public void recordFailure(AuthenticationRequest request) {
+        Object key = CredentialKey.of(request);
+        if (key != null) {
+            long now = System.currentTimeMillis();
+            failedCredentials.put(key, Boolean.TRUE, now, now + timeToLiveMillis);
+        }
+        countFailure(request, false);
+    }
+
+    /**
+     * @param principalName The principal name
+     * @return number of failed attempts of the principal within the current window
+     */
+    public int getFailureCount(String principalName) {
+        AtomicInteger counter = failureCounters.get(principalName, System.currentTimeMillis());
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * Forgets the rejected credential, for example after the token has been re-issued or the user account unlocked.
+     *
+     * @param fingerprint The credential fingerprint
+     */
+    public void invalidate(CredentialFingerprint fingerprint) {
+        failedCredentials.removeIf((key, value) -> CredentialKey.hasFingerprint(key, fingerprint));
+    }
+
+    /**
+     * Resets the failure count of the principal and forgets the passwords rejected for the principal.
+     *
+     * @param principalName The principal name
+     */
+    public void invalidatePrincipal(String principalName) {
+        failureCounters.remove(principalName);
+        failedCredentials.removeIf((key, value) -> CredentialKey.hasUsername(key, principalName));
+    }
+
+    /**
+     * Forgets the rejected credentials and failure counts affected by the principal name, credential and
+     * invalidate-all events. Role and permission events do not affect rejected credentials.
+     *
+     * @param event The invalidation event
+     */
+    @Override
+    public void invalidate(InvalidationEvent event) {
+        switch (event.getKind()) {
+            case ALL:
+                invalidateAll();
+                break;
+            case PRINCIPAL:
+                invalidatePrincipal(event.getName());
+                break;
+            case CREDENTIAL:
+                invalidate(event.getFingerprint());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Forgets all the rejected credentials and failure counts.
+     */
+    public void invalidateAll() {
+        failedCredentials.clear();
+        failureCounters.clear();
+    }
+
+    private void countFailure(AuthenticationRequest request, boolean rejectedByCache) {
+        String principalName = CredentialKey.principalName(request);
+        int failures = 0;
+        if (principalName != null) {
+            long now = System.currentTimeMillis();
+            failures = failureCounters.putIfAbsent(principalName, new AtomicInteger(), now, now + timeToLiveMillis)
+                    .incrementAndGet();
+        }
+        if (throttlingHook != null) {
+            throttlingHook.failed(request, principalName, failures, rejectedByCache);
+        }
+    }
+
+    /**
+     * Receives failed authentication attempts, so that abusive clients can be throttled or blocked
+     * before they reach the identity providers.
+     */
+    @FunctionalInterface
+    public interface ThrottlingHook {
+
+        /**
+         * @param request The rejected authentication request
+         * @param principalName The principal name, or null if it is not known before the authentication
+         * @param recentFailures Number of failed attempts of the principal within the current window,
+         *        or 0 if the principal name is not known
+         * @param rejectedByCache true if the request was rejected by the cache without reaching identity providers
+         */
+        void failed(AuthenticationRequest request, String principalName, int recentFailures, boolean rejectedByCache);
+    }
+}
@@ -0,0 +1,65 @@
+package io.quarkus.security.identity.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * {@link InvalidationTransport} that connects {@link InvalidationBus}es within one JVM, for example to simulate
+ * several nodes in tests. Transports created with the {@link #connect()} method share the channel, and each of them
+ * delivers the sent events to all the other transports of the channel:
+ * <pre>
+ * {@code
+ * InMemoryInvalidationTransport node1 = new InMemoryInvalidationTransport();
+ * InvalidationBus bus1 = new InvalidationBus(node1);
+ * InvalidationBus bus2 = new InvalidationBus(node1.connect());
+ * }
+ * </pre>
+ * Events are delivered synchronously on the sending thread.
+ */
+public final class InMemoryInvalidationTransport implements InvalidationTransport {
+
+    private final List<InMemoryInvalidationTransport> channel;
+    private volatile Consumer<InvalidationEvent> receiver;
+
+    /**
+     * Creates the first transport of a new channel.
+     */
+    public InMemoryInvalidationTransport() {
+        this(new CopyOnWriteArrayList<>());
+    }
+
+    private InMemoryInvalidationTransport(List<InMemoryInvalidationTransport> channel) {
+        this.channel = channel;
+        channel.add(this);
+    }
+
+    /**
+     * @return new transport that shares the channel with this transport
+     */
+    public InMemoryInvalidationTransport connect() {
+        return new InMemoryInvalidationTransport(channel);
+    }
+
+    /**
+     * Removes this transport from the channel.
+     */
+    public void disconnect() {
+        channel.remove(this);
+    }
+
+    @Override
+    public void start(Consumer<InvalidationEvent> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void send(InvalidationEvent event) {
+        for (InMemoryInvalidationTransport transport : channel) {
+            Consumer<InvalidationEvent> other = transport.receiver;
+            if (transport != this && other != null) {
+                other.accept(event);
+            }
+        }
+    }
+}
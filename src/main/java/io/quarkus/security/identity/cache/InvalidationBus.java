@@ -0,0 +1,94 @@
+package io.quarkus.security.identity.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.quarkus.security.credential.CredentialFingerprint;
+
+/**
+ * In-process bus that delivers the {@link InvalidationEvent}s to the subscribed caches, and optionally to the other
+ * nodes through the {@link InvalidationTransport}. For example, the identities cached for a revoked token are
+ * evicted from all the caches like this:
+ * <pre>
+ * {@code
+ * InvalidationBus bus = new InvalidationBus(transport);
+ * bus.subscribe(refreshAheadIdentityCache);
+ * bus.subscribe(failedAuthenticationCache);
+ *
+ * bus.publish(InvalidationEvent.credential(token.getFingerprint()));
+ * }
+ * </pre>
+ * Events are delivered synchronously, so when the {@link #publish(InvalidationEvent)} method returns, all the local
+ * caches have evicted the affected entries, including the entries of the authentications that were in progress.
+ * This makes it safe to use long cache time-to-live durations.
+ * <p>
+ * Events of {@link CredentialFingerprint#isPassword() password fingerprints} are only delivered to the local caches,
+ * because password fingerprints can never leave the JVM. The {@link InvalidationEvent#principal(String)} event should
+ * be published to evict the entries of the user on all the nodes.
+ */
+public final class InvalidationBus {
+
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    private final InvalidationTransport transport;
+
+    /**
+     * Creates the bus that only delivers events to the caches of this node.
+     */
+    public InvalidationBus() {
+        this(null);
+    }
+
+    /**
+     * @param transport delivers the events to the other nodes, or null
+     */
+    public InvalidationBus(InvalidationTransport transport) {
+        this.transport = transport;
+        if (transport != null) {
+            transport.start(this::deliver);
+        }
+    }
+
+    /**
+     * @param listener The cache that should receive the events
+     * @return Unsubscribes the listener when run
+     */
+    public Runnable subscribe(InvalidationListener listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Delivers the event to the local caches, and sends it to the other nodes unless it is an event of a password
+     * fingerprint.
+     *
+     * @param event The invalidation event
+     */
+    public void publish(InvalidationEvent event) {
+        try {
+            deliver(event);
+        } finally {
+            if (transport != null && (event.getFingerprint() == null || !event.getFingerprint().isPassword())) {
+                transport.send(event);
+            }
+        }
+    }
+
+    private void deliver(InvalidationEvent event) {
+        RuntimeException failure = null;
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.invalidate(event);
+            } catch (RuntimeException e) {
+                // the other caches must still be invalidated
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
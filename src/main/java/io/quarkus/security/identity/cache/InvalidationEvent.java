@@ -0,0 +1,152 @@
+package io.quarkus.security.identity.cache;
+
+import java.security.Permission;
+import java.util.Objects;
+
+import io.quarkus.security.credential.Credential;
+import io.quarkus.security.credential.CredentialFingerprint;
+import io.quarkus.security.identity.SecurityIdentity;
+
+/**
+ * Event that tells the caches built around the {@link SecurityIdentity} and its permission checks which cached entries
+ * are no longer valid, for example because a user has been deleted, a token has been revoked or a role has been
+ * granted different permissions.
+ *
+ * @see InvalidationBus
+ */
+public final class InvalidationEvent {
+
+    private static final InvalidationEvent ALL = new InvalidationEvent(Kind.ALL, null, null);
+
+    public enum Kind {
+        /**
+         * Entries of the identity with the principal name.
+         */
+        PRINCIPAL,
+        /**
+         * Entries created for the credential with the fingerprint.
+         */
+        CREDENTIAL,
+        /**
+         * Entries of the identities that have the role.
+         */
+        ROLE,
+        /**
+         * Entries of the identities that have a permission with the name, and the permission check results
+         * for the permission name.
+         */
+        PERMISSION,
+        /**
+         * All the entries.
+         */
+        ALL
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final CredentialFingerprint fingerprint;
+
+    private InvalidationEvent(Kind kind, String name, CredentialFingerprint fingerprint) {
+        this.kind = kind;
+        this.name = name;
+        this.fingerprint = fingerprint;
+    }
+
+    public static InvalidationEvent principal(String principalName) {
+        return new InvalidationEvent(Kind.PRINCIPAL, Objects.requireNonNull(principalName), null);
+    }
+
+    public static InvalidationEvent credential(CredentialFingerprint fingerprint) {
+        return new InvalidationEvent(Kind.CREDENTIAL, null, Objects.requireNonNull(fingerprint));
+    }
+
+    public static InvalidationEvent role(String role) {
+        return new InvalidationEvent(Kind.ROLE, Objects.requireNonNull(role), null);
+    }
+
+    public static InvalidationEvent permission(String permissionName) {
+        return new InvalidationEvent(Kind.PERMISSION, Objects.requireNonNull(permissionName), null);
+    }
+
+    public static InvalidationEvent all() {
+        return ALL;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The principal name, the role or the permission name, or null for the {@link Kind#CREDENTIAL} and
+     *         {@link Kind#ALL} events
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The credential fingerprint, or null if this is not the {@link Kind#CREDENTIAL} event
+     * @see CredentialFingerprint#toHexString()
+     */
+    public CredentialFingerprint getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Checks whether the cached identity is affected by this event. The credential fingerprints of the identity
+     * are only computed for the {@link Kind#CREDENTIAL} event, caches that know the fingerprint of the credential
+     * the identity was created for should compare it with the {@link #getFingerprint()} instead.
+     *
+     * @param identity The cached identity
+     * @return true if the identity must be evicted
+     */
+    public boolean appliesTo(SecurityIdentity identity) {
+        switch (kind) {
+            case PRINCIPAL:
+                return identity.getPrincipal() != null && name.equals(identity.getPrincipal().getName());
+            case CREDENTIAL:
+                for (Credential credential : identity.getCredentials()) {
+                    if (fingerprint.equals(credential.getFingerprint())) {
+                        return true;
+                    }
+                }
+                return false;
+            case ROLE:
+                return identity.getRoles().contains(name);
+            case PERMISSION:
+                for (Permission permission : identity.getPermissions()) {
+                    if (name.equals(permission.getName())) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InvalidationEvent)) {
+            return false;
+        }
+        InvalidationEvent that = (InvalidationEvent) o;
+        return kind == that.kind && Objects.equals(name, that.name) && Objects.equals(fingerprint, that.fingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, name, fingerprint);
+    }
+
+    /**
+     * @return The event kind and name, the credential fingerprint is never included
+     */
+    @Override
+    public String toString() {
+        return name == null ? kind.toString() : kind + ":" + name;
+    }
+}
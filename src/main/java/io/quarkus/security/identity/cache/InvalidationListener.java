@@ -0,0 +1,16 @@
+package io.quarkus.security.identity.cache;
+
+/**
+ * Cache that evicts its entries when it receives an {@link InvalidationEvent} from the {@link InvalidationBus}.
+ */
+@FunctionalInterface
+public interface InvalidationListener {
+
+    /**
+     * Evicts the entries affected by the event. This method is invoked on the thread that published the event, or
+     * on the transport thread for events published on other nodes, therefore it must not block.
+     *
+     * @param event The invalidation event
+     */
+    void invalidate(InvalidationEvent event);
+}
@@ -0,0 +1,33 @@
+package io.quarkus.security.identity.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * SPI that fans the {@link InvalidationEvent}s published on one node out to the {@link InvalidationBus}es of the other
+ * nodes, for example over a message broker or a database notification channel.
+ * <p>
+ * The {@link InvalidationEvent#getFingerprint()} of the credential events must be sent as the
+ * {@link io.quarkus.security.credential.CredentialFingerprint#toHexString()}, which is a keyed digest, therefore all
+ * the nodes must configure the same key with the
+ * {@link io.quarkus.security.credential.CredentialFingerprint#setKey(byte[])}. Events of password fingerprints are
+ * never sent to the other nodes.
+ *
+ * @see InMemoryInvalidationTransport
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Starts receiving the events published on the other nodes.
+     *
+     * @param receiver receives the events published on the other nodes
+     */
+    void start(Consumer<InvalidationEvent> receiver);
+
+    /**
+     * Sends the event published on this node to the other nodes. This method should not wait for the other nodes
+     * to receive the event.
+     *
+     * @param event The invalidation event
+     */
+    void send(InvalidationEvent event);
+}
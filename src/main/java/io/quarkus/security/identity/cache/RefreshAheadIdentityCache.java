@@ -0,0 +1,236 @@
+package io.quarkus.security.identity.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.quarkus.security.AuthenticationFailedException;
+import io.quarkus.security.credential.CredentialFingerprint;
+import io.quarkus.security.identity.IdentityProviderManager;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.request.AuthenticationRequest;
+import io.quarkus.security.identity.request.CertificateAuthenticationRequest;
+import io.quarkus.security.identity.request.TokenAuthenticationRequest;
+import io.quarkus.security.identity.request.UsernamePasswordAuthenticationRequest;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+/**
+ * Bounded cache of the {@link SecurityIdentity}s created by the {@link IdentityProviderManager}, which re-authenticates
+ * the cached identities in the background shortly before they expire:
+ * <pre>
+ * {@code
+ * public Uni<SecurityIdentity> authenticate(AuthenticationRequest request) {
+ *     return identityCache.authenticate(request, () -> delegate.authenticate(request));
+ * }
+ * }
+ * </pre>
+ * The first request that arrives within the refresh-ahead window of a cached identity starts the re-authentication
+ * and, like all the other requests, is served the cached identity while the re-authentication is in progress.
+ * The refreshed identity replaces the cached identity and restarts its time-to-live. An identity is never cached beyond
+ * its {@link SecurityIdentity#EXPIRE_TIME_ATTRIBUTE}, so identities of tokens that expire within the time-to-live are
+ * refreshed before the token expires, and evicted when it does. Each cached identity starts
+ * its refresh at a random time within the first half of the refresh-ahead window, so that identities cached at
+ * the same time are not all re-authenticated at the same time. Requests only wait for the authentication when
+ * the identity is not cached or has already expired.
+ * <p>
+ * If the re-authentication fails with the {@link AuthenticationFailedException}, for example because the token has been
+ * revoked, the cached identity is removed. Other failures keep the cached identity until it expires, and the next
+ * request within the refresh-ahead window retries the re-authentication.
+ * <p>
+ * Identities are keyed by the {@link CredentialFingerprint} of the {@link TokenAuthenticationRequest},
+ * {@link UsernamePasswordAuthenticationRequest} and {@link CertificateAuthenticationRequest} credentials; other requests
+ * are always authenticated. This cache is only suitable when the identity exclusively depends on the credential,
+ * and not on other request attributes.
+ * <p>
+ * Identities of the authentications and re-authentications that were in progress when the cache was invalidated are
+ * not cached, so that an invalidation is never undone by an identity created from the invalidated state.
+ */
+public final class RefreshAheadIdentityCache implements InvalidationListener {
+
+    private final ExpiringCache<Object, CachedIdentity> cache;
+    private final long timeToLiveMillis;
+    private final long refreshAheadMillis;
+    private final Executor refreshExecutor;
+    /**
+     * Incremented by every invalidation, identities authenticated in an older generation are not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates a cache that re-authenticates the identities on the Mutiny default worker pool.
+     *
+     * @param maximumSize maximum number of cached identities
+     * @param timeToLive duration an identity is cached for since it was authenticated
+     * @param refreshAhead duration before the expiry in which the identity is re-authenticated
+     */
+    public RefreshAheadIdentityCache(int maximumSize, Duration timeToLive, Duration refreshAhead) {
+        this(maximumSize, timeToLive, refreshAhead, Infrastructure.getDefaultWorkerPool());
+    }
+
+    /**
+     * @param maximumSize maximum number of cached identities
+     * @param timeToLive duration an identity is cached for since it was authenticated
+     * @param refreshAhead duration before the expiry in which the identity is re-authenticated
+     * @param refreshExecutor executor that runs the re-authentication
+     */
+    public RefreshAheadIdentityCache(int maximumSize, Duration timeToLive, Duration refreshAhead,
+            Executor refreshExecutor) {
+        if (refreshAhead.compareTo(timeToLive) > 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Refresh-ahead duration %s must not be longer than the time-to-live %s", refreshAhead, timeToLive));
+        }
+        this.cache = new ExpiringCache<>(maximumSize);
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.refreshAheadMillis = refreshAhead.toMillis();
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Returns the cached identity, or authenticates the request with the {@code authenticator} and caches the
+     * resulting identity. Failed authentications and null identities are not cached. When the cached identity is about to
+     * expire, the {@code authenticator} is also used to re-authenticate the request in the background.
+     *
+     * @param request The authentication request
+     * @param authenticator Authenticates the request, usually by delegating to the {@link IdentityProviderManager}
+     * @return The future security identity
+     */
+    public Uni<SecurityIdentity> authenticate(AuthenticationRequest request,
+            Supplier<Uni<SecurityIdentity>> authenticator) {
+        return Uni.createFrom().deferred(() -> {
+            final Object key = CredentialKey.of(request);
+            if (key == null) {
+                return authenticator.get();
+            }
+            final long now = System.currentTimeMillis();
+            final CachedIdentity cached = cache.get(key, now);
+            if (cached != null) {
+                if (now >= cached.refreshAt && cached.refreshing.compareAndSet(false, true)) {
+                    refresh(key, cached, authenticator);
+                }
+                return Uni.createFrom().item(cached.identity);
+            }
+            final long authenticatedGeneration = generation.get();
+            return authenticator.get().invoke(identity -> {
+                if (identity != null) {
+                    put(key, identity, authenticatedGeneration);
+                }
+            });
+        });
+    }
+
+    /**
+     * Removes the identity cached for the credential with the given fingerprint.
+     *
+     * @param fingerprint The credential fingerprint
+     */
+    public void invalidate(CredentialFingerprint fingerprint) {
+        generation.incrementAndGet();
+        cache.removeIf((key, value) -> CredentialKey.hasFingerprint(key, fingerprint));
+    }
+
+    @Override
+    public void invalidate(InvalidationEvent event) {
+        switch (event.getKind()) {
+            case ALL:
+                invalidateAll();
+                break;
+            case CREDENTIAL:
+                invalidate(event.getFingerprint());
+                break;
+            default:
+                generation.incrementAndGet();
+                cache.removeIf((key, cached) -> event.appliesTo(cached.identity));
+        }
+    }
+
+    /**
+     * Removes all the cached identities.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * @return number of cached identities, including identities that have expired but have not been evicted yet
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private void refresh(Object key, CachedIdentity cached, Supplier<Uni<SecurityIdentity>> authenticator) {
+        final long refreshedGeneration = generation.get();
+        Uni.createFrom().deferred(authenticator::get)
+                .runSubscriptionOn(refreshExecutor)
+                .subscribe().with(identity -> {
+                    if (identity == null) {
+                        cache.remove(key, cached);
+                    } else if (!put(key, identity, refreshedGeneration)) {
+                        // invalidated during the refresh, the next request retries if the identity is still cached
+                        cached.refreshing.set(false);
+                    }
+                }, failure -> {
+                    if (failure instanceof AuthenticationFailedException) {
+                        cache.remove(key, cached);
+                    } else {
+                        // keep serving the cached identity, the next request retries
+                        cached.refreshing.set(false);
+                    }
+                });
+    }
+
+    /**
+     * @return true if the identity is cached, false if the cache has been invalidated since the {@code generation}
+     */
+    private boolean put(Object key, SecurityIdentity identity, long authenticatedGeneration) {
+        if (generation.get() != authenticatedGeneration) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(now + timeToLiveMillis, getExpireTime(identity));
+        if (expiresAt <= now) {
+            return false;
+        }
+        long refreshAt = expiresAt - refreshAheadMillis;
+        if (refreshAheadMillis > 1) {
+            refreshAt += ThreadLocalRandom.current().nextLong(refreshAheadMillis / 2);
+        }
+        CachedIdentity cached = new CachedIdentity(identity, refreshAt);
+        cache.put(key, cached, now, expiresAt);
+        if (generation.get() != authenticatedGeneration) {
+            // invalidated concurrently with the put
+            cache.remove(key, cached);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the time the identity expires at in milliseconds, or {@link Long#MAX_VALUE} if it does not expire
+     */
+    private static long getExpireTime(SecurityIdentity identity) {
+        // the attribute map does not resolve lazy attributes, which could block
+        Object expireTime = identity.getAttributes().get(SecurityIdentity.EXPIRE_TIME_ATTRIBUTE);
+        if (expireTime instanceof Number) {
+            long seconds = ((Number) expireTime).longValue();
+            return seconds > Long.MAX_VALUE / 1000 ? Long.MAX_VALUE : seconds * 1000;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static final class CachedIdentity {
+
+        private final SecurityIdentity identity;
+        private final long refreshAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private CachedIdentity(SecurityIdentity identity, long refreshAt) {
+            this.identity = identity;
+            this.refreshAt = refreshAt;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.quarkus.security.identity.prevalidation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.quarkus.security.AuthenticationFailedException;
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.IdentityProviderManager;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.request.AuthenticationRequest;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Pre-authentication stage that runs the {@link AuthenticationRequestPrevalidator}s in front of the
+ * {@link IdentityProviderManager}, so that garbage requests, such as malformed, oversized or expired tokens, are
+ * rejected before any {@link IdentityProvider} verifies a signature or calls a remote introspection endpoint:
+ * <pre>
+ * {@code
+ * public Uni<SecurityIdentity> authenticate(AuthenticationRequest request) {
+ *     return prevalidation.authenticate(request, () -> delegate.authenticate(request));
+ * }
+ * }
+ * </pre>
+ * The prevalidators of every request type are resolved once and then run from the highest priority, until the first
+ * one rejects the request. Mechanisms that can reject the request without an exception, for example by directly
+ * responding with the 401 status, can use the {@link #prevalidate(AuthenticationRequest)} method instead.
+ * <p>
+ * Rejected requests fail with the {@link AuthenticationFailedException}, just like the requests rejected by
+ * the identity providers. In order not to allocate an exception for every rejected request, there is a single shared
+ * exception per {@link PrevalidationVerdict}, which carries the verdict as the {@link #VERDICT_ATTRIBUTE} attribute.
+ * The shared exceptions have an empty stack trace, because the stack trace captured when they are created would only
+ * show the class initialization of this class. Their cause is already set, therefore {@link Throwable#initCause} fails,
+ * but {@link Throwable#addSuppressed} and {@link Throwable#setStackTrace} would modify the exception seen by all the
+ * rejected requests, so the rejection failures must not be modified.
+ */
+public final class AuthenticationPrevalidation {
+
+    /**
+     * Name of the {@link AuthenticationFailedException} attribute that contains the {@link PrevalidationVerdict}.
+     */
+    public static final String VERDICT_ATTRIBUTE = "quarkus.security.prevalidation-verdict";
+
+    private static final Uni<SecurityIdentity>[] REJECTIONS = createRejections();
+
+    private final List<AuthenticationRequestPrevalidator<?>> prevalidators;
+    private final Map<Class<?>, AuthenticationRequestPrevalidator<?>[]> prevalidatorsByType = new ConcurrentHashMap<>();
+    private final LongAdder[] rejected = new LongAdder[PrevalidationVerdict.values().length];
+
+    /**
+     * @param prevalidators The prevalidators of all the request types
+     */
+    public AuthenticationPrevalidation(Collection<? extends AuthenticationRequestPrevalidator<?>> prevalidators) {
+        List<AuthenticationRequestPrevalidator<?>> sorted = new ArrayList<>(prevalidators);
+        sorted.sort(Comparator.comparingInt(AuthenticationRequestPrevalidator<?>::priority).reversed());
+        this.prevalidators = sorted;
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Fails with the {@link AuthenticationFailedException} if one of the prevalidators rejects the request,
+     * otherwise authenticates the request with the {@code authenticator}.
+     *
+     * @param request The authentication request
+     * @param authenticator Authenticates the request, usually by delegating to the {@link IdentityProviderManager}
+     * @return The future security identity
+     */
+    public Uni<SecurityIdentity> authenticate(AuthenticationRequest request,
+            Supplier<Uni<SecurityIdentity>> authenticator) {
+        PrevalidationVerdict verdict = prevalidate(request);
+        return verdict.isAccepted() ? Uni.createFrom().deferred(authenticator::get) : REJECTIONS[verdict.ordinal()];
+    }
+
+    /**
+     * Runs the prevalidators of the request type.
+     *
+     * @param request The authentication request
+     * @return The verdict of the first prevalidator that rejected the request, or {@link PrevalidationVerdict#ACCEPTED}
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public PrevalidationVerdict prevalidate(AuthenticationRequest request) {
+        for (AuthenticationRequestPrevalidator prevalidator : prevalidatorsByType.computeIfAbsent(request.getClass(),
+                this::findPrevalidators)) {
+            PrevalidationVerdict verdict = prevalidator.prevalidate(request);
+            if (verdict != null && !verdict.isAccepted()) {
+                rejected[verdict.ordinal()].increment();
+                return verdict;
+            }
+        }
+        return PrevalidationVerdict.ACCEPTED;
+    }
+
+    /**
+     * @param verdict The verdict
+     * @return number of requests rejected with the verdict
+     */
+    public long getRejectedCount(PrevalidationVerdict verdict) {
+        return rejected[verdict.ordinal()].sum();
+    }
+
+    private AuthenticationRequestPrevalidator<?>[] findPrevalidators(Class<?> requestType) {
+        List<AuthenticationRequestPrevalidator<?>> result = new ArrayList<>();
+        for (AuthenticationRequestPrevalidator<?> prevalidator : prevalidators) {
+            if (prevalidator.getRequestType().isAssignableFrom(requestType)) {
+                result.add(prevalidator);
+            }
+        }
+        return result.toArray(new AuthenticationRequestPrevalidator<?>[0]);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Uni<SecurityIdentity>[] createRejections() {
+        PrevalidationVerdict[] verdicts = PrevalidationVerdict.values();
+        Uni<SecurityIdentity>[] rejections = new Uni[verdicts.length];
+        for (PrevalidationVerdict verdict : verdicts) {
+            if (!verdict.isAccepted()) {
+                AuthenticationFailedException rejection = new AuthenticationFailedException(
+                        "Authentication request rejected by the prevalidation: " + verdict, null,
+                        Map.of(VERDICT_ATTRIBUTE, verdict));
+                rejection.setStackTrace(new StackTraceElement[0]);
+                rejections[verdict.ordinal()] = Uni.createFrom().failure(rejection);
+            }
+        }
+        return rejections;
+    }
+}
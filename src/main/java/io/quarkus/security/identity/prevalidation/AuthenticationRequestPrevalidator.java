@@ -0,0 +1,38 @@
+package io.quarkus.security.identity.prevalidation;
+
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.request.AuthenticationRequest;
+
+/**
+ * Cheap check of the {@link AuthenticationRequest}s that rejects requests which can never be authenticated, such as
+ * malformed or expired tokens, before they are offered to the {@link IdentityProvider}s.
+ * <p>
+ * Prevalidators run synchronously on the thread that authenticates the request, for every request, therefore they must
+ * not block or perform any expensive work such as a signature verification. They must not throw exceptions either,
+ * a request that cannot be decided is {@link PrevalidationVerdict#ACCEPTED} and left to the identity providers.
+ * Passing the prevalidation never means that the request is authenticated.
+ *
+ * @param <T> The request type
+ * @see AuthenticationPrevalidation
+ */
+public interface AuthenticationRequestPrevalidator<T extends AuthenticationRequest> {
+
+    /**
+     * @return The request type checked by this prevalidator, including its subtypes
+     */
+    Class<T> getRequestType();
+
+    /**
+     * @return The priority, prevalidators of the same request are run from the highest to the lowest priority
+     */
+    default int priority() {
+        return 0;
+    }
+
+    /**
+     * @param request The authentication request
+     * @return {@link PrevalidationVerdict#ACCEPTED} if the request must be authenticated, otherwise the reason
+     *         of the rejection
+     */
+    PrevalidationVerdict prevalidate(T request);
+}
@@ -0,0 +1,565 @@
+package io.quarkus.security.identity.prevalidation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import io.quarkus.security.credential.TokenCredential;
+import io.quarkus.security.identity.request.TokenAuthenticationRequest;
+
+/**
+ * Prevalidator of the JSON Web Tokens of the {@link TokenAuthenticationRequest}s. It reads the
+ * {@link TokenCredential#getTokenBytes()} without verifying the signature and without creating the token
+ * {@link String}, and rejects:
+ * <ul>
+ * <li>empty tokens as {@link PrevalidationVerdict#MALFORMED}</li>
+ * <li>tokens longer than the maximum length as {@link PrevalidationVerdict#TOO_LARGE}, the length is checked before
+ * a {@link String} token is encoded</li>
+ * <li>signed tokens, which are made of three segments, whose segments are empty or not base64url encoded, with or
+ * without the padding, whose claims are not a JSON object and, unless disabled, that do not have the {@code exp} claim
+ * as {@link PrevalidationVerdict#MALFORMED}</li>
+ * <li>tokens whose {@code exp} claim is in the past as {@link PrevalidationVerdict#EXPIRED}</li>
+ * <li>tokens whose {@code nbf} claim is in the future as {@link PrevalidationVerdict#NOT_YET_VALID}</li>
+ * <li>tokens whose {@code iss} claim is not one of the configured issuers as
+ * {@link PrevalidationVerdict#UNTRUSTED_ISSUER}</li>
+ * </ul>
+ * Time claims are compared with the configured clock skew. Only the signed tokens are validated: tokens that do not
+ * have exactly three segments, such as encrypted tokens, whose claims cannot be read without decrypting them, or opaque
+ * tokens, are accepted.
+ * <p>
+ * The tokens of all the {@link TokenAuthenticationRequest}s are checked, unless the checked token types are restricted
+ * with the {@link Builder#tokenTypes(String...)} method.
+ */
+public final class JwtPrevalidator implements AuthenticationRequestPrevalidator<TokenAuthenticationRequest> {
+
+    private static final long MISSING = Long.MIN_VALUE;
+    private static final byte[] BASE64_URL = new byte[256];
+
+    static {
+        Arrays.fill(BASE64_URL, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final int maxLength;
+    private final Set<String> issuers;
+    private final Set<String> tokenTypes;
+    private final long clockSkewSeconds;
+    private final boolean requireExpiration;
+
+    private JwtPrevalidator(Builder builder) {
+        this.maxLength = builder.maxLength;
+        this.issuers = builder.issuers;
+        this.tokenTypes = builder.tokenTypes;
+        this.clockSkewSeconds = builder.clockSkew.getSeconds();
+        this.requireExpiration = builder.requireExpiration;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Class<TokenAuthenticationRequest> getRequestType() {
+        return TokenAuthenticationRequest.class;
+    }
+
+    @Override
+    public PrevalidationVerdict prevalidate(TokenAuthenticationRequest request) {
+        TokenCredential credential = request.getToken();
+        if (credential == null) {
+            return PrevalidationVerdict.MALFORMED;
+        }
+        if (tokenTypes != null && !tokenTypes.contains(credential.getType())) {
+            return PrevalidationVerdict.ACCEPTED;
+        }
+        int length = credential.getTokenLength();
+        if (length <= 0) {
+            return PrevalidationVerdict.MALFORMED;
+        }
+        if (length > maxLength) {
+            return PrevalidationVerdict.TOO_LARGE;
+        }
+        ByteBuffer token = credential.getTokenBytes();
+        int start = token.position();
+        int end = token.limit();
+        int firstDot = -1;
+        int secondDot = -1;
+        boolean base64Url = true;
+        for (int i = start; i < end; i++) {
+            byte b = token.get(i);
+            if (b == '.') {
+                if (firstDot < 0) {
+                    firstDot = i;
+                } else if (secondDot < 0) {
+                    secondDot = i;
+                } else {
+                    // not a signed token, such as an encrypted token, only the identity provider can read the claims
+                    return PrevalidationVerdict.ACCEPTED;
+                }
+            } else if (BASE64_URL[b & 0xFF] < 0 && b != '=') {
+                // the padding is not permitted in the compact serialization, but decoders usually accept it
+                base64Url = false;
+            }
+        }
+        if (secondDot < 0) {
+            // opaque token
+            return PrevalidationVerdict.ACCEPTED;
+        }
+        // the header, the claims and the signature must not be empty
+        if (!base64Url || firstDot == start || secondDot == firstDot + 1 || secondDot == end - 1) {
+            return PrevalidationVerdict.MALFORMED;
+        }
+        byte[] claims = decode(token, firstDot + 1, secondDot);
+        if (claims == null) {
+            return PrevalidationVerdict.MALFORMED;
+        }
+        ClaimsReader reader = new ClaimsReader(claims);
+        if (!reader.read()) {
+            return PrevalidationVerdict.MALFORMED;
+        }
+        return verify(reader, System.currentTimeMillis() / 1000);
+    }
+
+    private PrevalidationVerdict verify(ClaimsReader claims, long now) {
+        if (claims.expiration == MISSING) {
+            if (requireExpiration) {
+                return PrevalidationVerdict.MALFORMED;
+            }
+        } else if (now - clockSkewSeconds >= claims.expiration) {
+            return PrevalidationVerdict.EXPIRED;
+        }
+        if (claims.notBefore != MISSING && now + clockSkewSeconds < claims.notBefore) {
+            return PrevalidationVerdict.NOT_YET_VALID;
+        }
+        if (issuers != null && (claims.issuer == null || !issuers.contains(claims.issuer))) {
+            return PrevalidationVerdict.UNTRUSTED_ISSUER;
+        }
+        return PrevalidationVerdict.ACCEPTED;
+    }
+
+    /**
+     * @return the decoded bytes of the base64url encoded segment, or null if the segment length or padding is invalid
+     */
+    private static byte[] decode(ByteBuffer token, int from, int to) {
+        if (token.get(to - 1) == '=') {
+            to -= token.get(to - 2) == '=' ? 2 : 1;
+        }
+        for (int i = from; i < to; i++) {
+            if (token.get(i) == '=') {
+                return null;
+            }
+        }
+        int length = to - from;
+        if (length % 4 == 1) {
+            return null;
+        }
+        byte[] decoded = new byte[length * 3 / 4];
+        int bits = 0;
+        int bitCount = 0;
+        int position = 0;
+        for (int i = from; i < to; i++) {
+            bits = (bits << 6) | BASE64_URL[token.get(i) & 0xFF];
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                decoded[position++] = (byte) (bits >> bitCount);
+            }
+        }
+        return decoded;
+    }
+
+    /**
+     * Minimal reader of the top-level {@code exp}, {@code nbf} and {@code iss} claims. Other values are only skipped,
+     * and nested values are not validated.
+     */
+    private static final class ClaimsReader {
+
+        private final byte[] json;
+        private int position;
+        private int stringStart;
+        private int stringEnd;
+        private boolean stringEscaped;
+        private long expiration = MISSING;
+        private long notBefore = MISSING;
+        private String issuer;
+
+        private ClaimsReader(byte[] json) {
+            this.json = json;
+        }
+
+        /**
+         * @return true if the claims are a JSON object
+         */
+        private boolean read() {
+            if (!expect('{')) {
+                return false;
+            }
+            skipWhitespace();
+            if (position < json.length && json[position] == '}') {
+                position++;
+                return isEnd();
+            }
+            while (true) {
+                skipWhitespace();
+                if (position >= json.length || json[position] != '"' || !readString()) {
+                    return false;
+                }
+                String claim = stringEscaped ? escapedClaimName() : claimName();
+                if (claim == null && stringEscaped) {
+                    return false;
+                }
+                if (!expect(':')) {
+                    return false;
+                }
+                skipWhitespace();
+                if (!readValue(claim)) {
+                    return false;
+                }
+                skipWhitespace();
+                if (position >= json.length) {
+                    return false;
+                }
+                byte next = json[position++];
+                if (next == '}') {
+                    return isEnd();
+                }
+                if (next != ',') {
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * @return the unescaped claim name, or null if an escape sequence is invalid
+         */
+        private String escapedClaimName() {
+            return unescape(new String(json, stringStart, stringEnd - stringStart, StandardCharsets.UTF_8));
+        }
+
+        private String claimName() {
+            if (stringEnd - stringStart == 3) {
+                if (matches('e', 'x', 'p')) {
+                    return "exp";
+                }
+                if (matches('n', 'b', 'f')) {
+                    return "nbf";
+                }
+                if (matches('i', 's', 's')) {
+                    return "iss";
+                }
+            }
+            return null;
+        }
+
+        private boolean matches(char first, char second, char third) {
+            return json[stringStart] == first && json[stringStart + 1] == second && json[stringStart + 2] == third;
+        }
+
+        private boolean readValue(String claim) {
+            if (position >= json.length) {
+                return false;
+            }
+            if ("exp".equals(claim) || "nbf".equals(claim)) {
+                long value = readNumericDate();
+                if (value == MISSING) {
+                    return false;
+                }
+                if ("exp".equals(claim)) {
+                    expiration = value;
+                } else {
+                    notBefore = value;
+                }
+                return true;
+            }
+            if ("iss".equals(claim)) {
+                if (json[position] != '"' || !readString()) {
+                    return false;
+                }
+                String value = new String(json, stringStart, stringEnd - stringStart, StandardCharsets.UTF_8);
+                issuer = stringEscaped ? unescape(value) : value;
+                return issuer != null;
+            }
+            return skipValue();
+        }
+
+        /**
+         * @return the seconds of the JSON number, or {@link #MISSING} if the value is not a number
+         */
+        private long readNumericDate() {
+            int start = position;
+            boolean integer = true;
+            if (json[position] == '-') {
+                position++;
+            }
+            int digits = skipDigits();
+            if (digits == 0) {
+                return MISSING;
+            }
+            if (position < json.length && json[position] == '.') {
+                position++;
+                integer = false;
+                if (skipDigits() == 0) {
+                    return MISSING;
+                }
+            }
+            if (position < json.length && (json[position] == 'e' || json[position] == 'E')) {
+                position++;
+                integer = false;
+                if (position < json.length && (json[position] == '+' || json[position] == '-')) {
+                    position++;
+                }
+                if (skipDigits() == 0) {
+                    return MISSING;
+                }
+            }
+            if (integer && digits <= 18) {
+                long value = 0;
+                for (int i = json[start] == '-' ? start + 1 : start; i < position; i++) {
+                    value = value * 10 + (json[i] - '0');
+                }
+                return json[start] == '-' ? -value : value;
+            }
+            double value = Double.parseDouble(new String(json, start, position - start, StandardCharsets.US_ASCII));
+            return (long) Math.max(Math.floor(value), MISSING + 1);
+        }
+
+        private int skipDigits() {
+            int start = position;
+            while (position < json.length && json[position] >= '0' && json[position] <= '9') {
+                position++;
+            }
+            return position - start;
+        }
+
+        private boolean skipValue() {
+            switch (json[position]) {
+                case '"':
+                    return readString();
+                case '{':
+                case '[':
+                    return skipNested();
+                case 't':
+                    return skipLiteral("true");
+                case 'f':
+                    return skipLiteral("false");
+                case 'n':
+                    return skipLiteral("null");
+                default:
+                    return readNumericDate() != MISSING;
+            }
+        }
+
+        private boolean skipNested() {
+            int depth = 0;
+            while (position < json.length) {
+                byte next = json[position];
+                if (next == '"') {
+                    if (!readString()) {
+                        return false;
+                    }
+                    continue;
+                }
+                position++;
+                if (next == '{' || next == '[') {
+                    depth++;
+                } else if ((next == '}' || next == ']') && --depth == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean skipLiteral(String literal) {
+            if (json.length - position < literal.length()) {
+                return false;
+            }
+            for (int i = 0; i < literal.length(); i++) {
+                if (json[position + i] != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            position += literal.length();
+            return true;
+        }
+
+        /**
+         * Reads the string that starts at the current position.
+         *
+         * @return true if the string is terminated
+         */
+        private boolean readString() {
+            position++;
+            stringStart = position;
+            stringEscaped = false;
+            while (position < json.length) {
+                byte next = json[position];
+                if (next == '"') {
+                    stringEnd = position++;
+                    return true;
+                }
+                if (next == '\\') {
+                    stringEscaped = true;
+                    position += 2;
+                } else if ((next & 0xFF) < 0x20) {
+                    return false;
+                } else {
+                    position++;
+                }
+            }
+            return false;
+        }
+
+        private boolean expect(char expected) {
+            skipWhitespace();
+            if (position < json.length && json[position] == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isEnd() {
+            skipWhitespace();
+            return position == json.length;
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length
+                    && (json[position] == ' ' || json[position] == '\t' || json[position] == '\n'
+                            || json[position] == '\r')) {
+                position++;
+            }
+        }
+
+        /**
+         * @return the unescaped JSON string, or null if an escape sequence is invalid
+         */
+        private static String unescape(String escaped) {
+            StringBuilder result = new StringBuilder(escaped.length());
+            for (int i = 0; i < escaped.length(); i++) {
+                char next = escaped.charAt(i);
+                if (next != '\\') {
+                    result.append(next);
+                    continue;
+                }
+                if (++i == escaped.length()) {
+                    return null;
+                }
+                switch (escaped.charAt(i)) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        result.append(escaped.charAt(i));
+                        break;
+                    case 'b':
+                        result.append('\b');
+                        break;
+                    case 'f':
+                        result.append('\f');
+                        break;
+                    case 'n':
+                        result.append('\n');
+                        break;
+                    case 'r':
+                        result.append('\r');
+                        break;
+                    case 't':
+                        result.append('\t');
+                        break;
+                    case 'u':
+                        if (i + 4 >= escaped.length()) {
+                            return null;
+                        }
+                        int codeUnit = 0;
+                        for (int j = i + 1; j <= i + 4; j++) {
+                            int digit = Character.digit(escaped.charAt(j), 16);
+                            if (digit < 0) {
+                                return null;
+                            }
+                            codeUnit = (codeUnit << 4) | digit;
+                        }
+                        result.append((char) codeUnit);
+                        i += 4;
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            return result.toString();
+        }
+    }
+
+    public static final class Builder {
+
+        private int maxLength = 16 * 1024;
+        private Set<String> issuers;
+        private Set<String> tokenTypes;
+        private Duration clockSkew = Duration.ofSeconds(60);
+        private boolean requireExpiration = true;
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxLength maximum length of the encoded token in bytes, 16 KiB by default
+         * @return this builder
+         */
+        public Builder maxLength(int maxLength) {
+            if (maxLength < 1) {
+                throw new IllegalArgumentException(String.format("Invalid maximum token length %d", maxLength));
+            }
+            this.maxLength = maxLength;
+            return this;
+        }
+
+        /**
+         * @param issuers The trusted issuers, tokens of all issuers are accepted by default
+         * @return this builder
+         */
+        public Builder issuers(String... issuers) {
+            this.issuers = Set.of(issuers);
+            return this;
+        }
+
+        /**
+         * @param tokenTypes The {@link TokenCredential#getType()} of the checked tokens, all tokens are checked by default
+         * @return this builder
+         */
+        public Builder tokenTypes(String... tokenTypes) {
+            this.tokenTypes = new HashSet<>(Arrays.asList(tokenTypes));
+            return this;
+        }
+
+        /**
+         * @param clockSkew tolerated difference between the clocks of the issuer and of this application, 60 seconds
+         *        by default
+         * @return this builder
+         */
+        public Builder clockSkew(Duration clockSkew) {
+            if (clockSkew.isNegative()) {
+                throw new IllegalArgumentException(String.format("Invalid clock skew %s", clockSkew));
+            }
+            this.clockSkew = clockSkew;
+            return this;
+        }
+
+        /**
+         * @param requireExpiration true if tokens without the {@code exp} claim are rejected, which is the default
+         * @return this builder
+         */
+        public Builder requireExpiration(boolean requireExpiration) {
+            this.requireExpiration = requireExpiration;
+            return this;
+        }
+
+        public JwtPrevalidator build() {
+            return new JwtPrevalidator(this);
+        }
+    }
+}
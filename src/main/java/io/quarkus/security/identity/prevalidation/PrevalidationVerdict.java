@@ -0,0 +1,44 @@
+package io.quarkus.security.identity.prevalidation;
+
+/**
+ * Result of the {@link AuthenticationRequestPrevalidator}. Verdicts are constants, so that rejecting a request
+ * allocates nothing.
+ */
+public enum PrevalidationVerdict {
+
+    /**
+     * The request may be valid and must be authenticated by the identity providers.
+     */
+    ACCEPTED,
+    /**
+     * The credential is not well-formed.
+     */
+    MALFORMED,
+    /**
+     * The credential exceeds the size limit.
+     */
+    TOO_LARGE,
+    /**
+     * The credential has expired.
+     */
+    EXPIRED,
+    /**
+     * The credential is not valid yet.
+     */
+    NOT_YET_VALID,
+    /**
+     * The credential was issued by an issuer that is not trusted.
+     */
+    UNTRUSTED_ISSUER,
+    /**
+     * The credential was rejected for another reason.
+     */
+    REJECTED;
+
+    /**
+     * @return true if the request must be authenticated by the identity providers
+     */
+    public boolean isAccepted() {
+        return this == ACCEPTED;
+    }
+}
@@ -4,6 +4,10 @@ import io.quarkus.security.credential.TokenCredential;
 
 /**
  * An simple authentication request that uses a token
+ * <p>
+ * The token credential may be backed by the bytes the token was received in, see
+ * {@link TokenCredential#ofBytes(java.nio.ByteBuffer, String)}. Identity providers that verify the token bytes,
+ * such as a signature, should use {@link TokenCredential#getTokenBytes()} to avoid copying the token.
  */
 public class TokenAuthenticationRequest extends BaseAuthenticationRequest implements AuthenticationRequest {
 
@@ -0,0 +1,149 @@
+package io.quarkus.security.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.quarkus.security.identity.request.AuthenticationRequest;
+
+/**
+ * {@link SecurityMetrics} implementation that keeps counters and timers in the memory. It has no dependencies
+ * on metrics libraries, and it is primarily meant for tests and diagnostics.
+ * <p>
+ * Measurements are aggregated per identity provider class or augmentor class and authentication request type,
+ * and per permission name. Only the first measurement of a new combination allocates.
+ */
+public final class InMemorySecurityMetrics implements SecurityMetrics {
+
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Class<?>, Timer>> authentications = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Class<?>, Timer>> augmentations = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> permissionChecks = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordAuthentication(Class<?> providerClass, Class<? extends AuthenticationRequest> requestType,
+            Outcome outcome, long durationNanos) {
+        timer(authentications, providerClass, requestType).record(outcome, durationNanos);
+    }
+
+    @Override
+    public void recordAugmentation(Class<?> augmentorClass, Class<? extends AuthenticationRequest> requestType,
+            Outcome outcome, long durationNanos) {
+        timer(augmentations, augmentorClass, requestType).record(outcome, durationNanos);
+    }
+
+    @Override
+    public void recordPermissionCheck(String permissionName, Outcome outcome, long durationNanos) {
+        Timer timer = permissionChecks.get(permissionName);
+        if (timer == null) {
+            timer = permissionChecks.computeIfAbsent(permissionName, n -> new Timer());
+        }
+        timer.record(outcome, durationNanos);
+    }
+
+    /**
+     * @return measurements of the identity provider authentications, or null if none were recorded
+     */
+    public Timer getAuthentications(Class<?> providerClass, Class<? extends AuthenticationRequest> requestType) {
+        return find(authentications, providerClass, requestType);
+    }
+
+    /**
+     * @return measurements of the augmentations, or null if none were recorded
+     */
+    public Timer getAugmentations(Class<?> augmentorClass, Class<? extends AuthenticationRequest> requestType) {
+        return find(augmentations, augmentorClass, requestType);
+    }
+
+    /**
+     * @return measurements of the permission checks, or null if none were recorded
+     */
+    public Timer getPermissionChecks(String permissionName) {
+        return permissionChecks.get(permissionName);
+    }
+
+    /**
+     * Removes all the recorded measurements.
+     */
+    public void reset() {
+        authentications.clear();
+        augmentations.clear();
+        permissionChecks.clear();
+    }
+
+    private static Timer find(ConcurrentHashMap<Class<?>, ConcurrentHashMap<Class<?>, Timer>> timers, Class<?> type,
+            Class<?> requestType) {
+        ConcurrentHashMap<Class<?>, Timer> byRequestType = timers.get(type);
+        return byRequestType == null ? null : byRequestType.get(requestType);
+    }
+
+    private static Timer timer(ConcurrentHashMap<Class<?>, ConcurrentHashMap<Class<?>, Timer>> timers, Class<?> type,
+            Class<?> requestType) {
+        // 'get' first, as 'computeIfAbsent' may lock even if the key is present
+        ConcurrentHashMap<Class<?>, Timer> byRequestType = timers.get(type);
+        if (byRequestType == null) {
+            byRequestType = timers.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+        }
+        Timer timer = byRequestType.get(requestType);
+        if (timer == null) {
+            timer = byRequestType.computeIfAbsent(requestType, t -> new Timer());
+        }
+        return timer;
+    }
+
+    /**
+     * Counts and durations of one measured step, per {@link Outcome}.
+     */
+    public static final class Timer {
+
+        private final LongAdder[] counts = new LongAdder[Outcome.values().length];
+        private final LongAdder[] totalTimes = new LongAdder[Outcome.values().length];
+        private final AtomicLong maxTime = new AtomicLong();
+
+        private Timer() {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+                totalTimes[i] = new LongAdder();
+            }
+        }
+
+        private void record(Outcome outcome, long durationNanos) {
+            counts[outcome.ordinal()].increment();
+            totalTimes[outcome.ordinal()].add(durationNanos);
+            if (durationNanos > maxTime.get()) {
+                maxTime.accumulateAndGet(durationNanos, Math::max);
+            }
+        }
+
+        /**
+         * @return number of measurements with the given outcome
+         */
+        public long getCount(Outcome outcome) {
+            return counts[outcome.ordinal()].sum();
+        }
+
+        /**
+         * @return number of all measurements
+         */
+        public long getCount() {
+            long sum = 0;
+            for (LongAdder count : counts) {
+                sum += count.sum();
+            }
+            return sum;
+        }
+
+        /**
+         * @return total duration of measurements with the given outcome, in nanoseconds
+         */
+        public long getTotalTimeNanos(Outcome outcome) {
+            return totalTimes[outcome.ordinal()].sum();
+        }
+
+        /**
+         * @return the longest measured duration, in nanoseconds
+         */
+        public long getMaxTimeNanos() {
+            return maxTime.get();
+        }
+    }
+}
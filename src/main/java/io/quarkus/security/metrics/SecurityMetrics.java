@@ -0,0 +1,185 @@
+package io.quarkus.security.metrics;
+
+import java.security.Permission;
+
+import io.quarkus.security.AuthenticationFailedException;
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.IdentityProviderManager;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.SecurityIdentityAugmentor;
+import io.quarkus.security.identity.request.AuthenticationRequest;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * SPI that allows to record how long authentication and authorization steps take and how they end.
+ * <p>
+ * {@link IdentityProviderManager} implementations should report every {@link IdentityProvider#authenticate} and
+ * every {@link SecurityIdentityAugmentor#augment} invocation, and {@link SecurityIdentity} implementations should report
+ * every {@link SecurityIdentity#checkPermission(Permission)} invocation, either by calling the record methods directly,
+ * or by wrapping the respective {@link Uni} with the instrument methods.
+ * <p>
+ * The record methods only accept classes, names, an {@link Outcome} and a primitive duration, so that implementations
+ * can record measurements without allocating. When {@link #isEnabled()} returns false, callers should skip measuring
+ * entirely, and the instrument methods return the original {@link Uni} unchanged.
+ *
+ * @see InMemorySecurityMetrics
+ */
+public interface SecurityMetrics {
+
+    /**
+     * Metrics implementation that records nothing.
+     */
+    SecurityMetrics DISABLED = new SecurityMetrics() {
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void recordAuthentication(Class<?> providerClass, Class<? extends AuthenticationRequest> requestType,
+                Outcome outcome, long durationNanos) {
+        }
+
+        @Override
+        public void recordAugmentation(Class<?> augmentorClass, Class<? extends AuthenticationRequest> requestType,
+                Outcome outcome, long durationNanos) {
+        }
+
+        @Override
+        public void recordPermissionCheck(String permissionName, Outcome outcome, long durationNanos) {
+        }
+    };
+
+    /**
+     * @return true if measurements should be recorded
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Records one {@link IdentityProvider#authenticate} invocation.
+     *
+     * @param providerClass The identity provider class
+     * @param requestType The authentication request type
+     * @param outcome {@link Outcome#SUCCESS} if an identity was created, {@link Outcome#NO_IDENTITY} if the provider
+     *        completed with null, {@link Outcome#FAILURE} if the credentials were invalid, {@link Outcome#ERROR} otherwise
+     * @param durationNanos The invocation duration in nanoseconds
+     */
+    void recordAuthentication(Class<?> providerClass, Class<? extends AuthenticationRequest> requestType,
+            Outcome outcome, long durationNanos);
+
+    /**
+     * Records one {@link SecurityIdentityAugmentor#augment} invocation.
+     *
+     * @param augmentorClass The augmentor class
+     * @param requestType The type of the authentication request that produced the augmented identity
+     * @param outcome {@link Outcome#SUCCESS} if the identity was augmented, {@link Outcome#FAILURE} if the augmentor
+     *        failed with the {@link AuthenticationFailedException}, {@link Outcome#ERROR} otherwise
+     * @param durationNanos The invocation duration in nanoseconds
+     */
+    void recordAugmentation(Class<?> augmentorClass, Class<? extends AuthenticationRequest> requestType,
+            Outcome outcome, long durationNanos);
+
+    /**
+     * Records one {@link SecurityIdentity#checkPermission(Permission)} invocation.
+     *
+     * @param permissionName The {@link Permission#getName()}
+     * @param outcome {@link Outcome#SUCCESS} if the permission was granted, {@link Outcome#FAILURE} if it was denied,
+     *        {@link Outcome#ERROR} if the check failed
+     * @param durationNanos The invocation duration in nanoseconds
+     */
+    void recordPermissionCheck(String permissionName, Outcome outcome, long durationNanos);
+
+    /**
+     * Measures the authentication performed by the identity provider when the returned Uni is subscribed to.
+     *
+     * @param providerClass The identity provider class
+     * @param requestType The authentication request type
+     * @param authentication The Uni returned by the {@link IdentityProvider#authenticate}
+     * @return The measured authentication
+     */
+    default Uni<SecurityIdentity> instrumentAuthentication(Class<?> providerClass,
+            Class<? extends AuthenticationRequest> requestType, Uni<SecurityIdentity> authentication) {
+        if (!isEnabled()) {
+            return authentication;
+        }
+        return Uni.createFrom().deferred(() -> {
+            final long start = System.nanoTime();
+            return authentication.onItemOrFailure().invoke((identity, failure) -> recordAuthentication(providerClass,
+                    requestType, failure == null ? (identity == null ? Outcome.NO_IDENTITY : Outcome.SUCCESS)
+                            : Outcome.of(failure),
+                    System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Measures the augmentation performed by the augmentor when the returned Uni is subscribed to.
+     *
+     * @param augmentorClass The augmentor class
+     * @param requestType The type of the authentication request that produced the augmented identity
+     * @param augmentation The Uni returned by the {@link SecurityIdentityAugmentor#augment}
+     * @return The measured augmentation
+     */
+    default Uni<SecurityIdentity> instrumentAugmentation(Class<?> augmentorClass,
+            Class<? extends AuthenticationRequest> requestType, Uni<SecurityIdentity> augmentation) {
+        if (!isEnabled()) {
+            return augmentation;
+        }
+        return Uni.createFrom().deferred(() -> {
+            final long start = System.nanoTime();
+            return augmentation.onItemOrFailure().invoke((identity, failure) -> recordAugmentation(augmentorClass,
+                    requestType, failure == null ? Outcome.SUCCESS : Outcome.of(failure), System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Measures the permission check when the returned Uni is subscribed to.
+     *
+     * @param permission The checked permission
+     * @param check The Uni returned by the {@link SecurityIdentity#checkPermission(Permission)}
+     * @return The measured permission check
+     */
+    default Uni<Boolean> instrumentPermissionCheck(Permission permission, Uni<Boolean> check) {
+        if (!isEnabled()) {
+            return check;
+        }
+        return Uni.createFrom().deferred(() -> {
+            final long start = System.nanoTime();
+            return check.onItemOrFailure().invoke((granted, failure) -> recordPermissionCheck(permission.getName(),
+                    failure != null ? Outcome.ERROR : (Boolean.TRUE.equals(granted) ? Outcome.SUCCESS : Outcome.FAILURE),
+                    System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * How a measured step ended.
+     */
+    enum Outcome {
+        /**
+         * The identity was created or augmented, or the permission was granted.
+         */
+        SUCCESS,
+        /**
+         * The identity provider could not handle the request and completed with null.
+         */
+        NO_IDENTITY,
+        /**
+         * The credentials were invalid, or the permission was denied.
+         */
+        FAILURE,
+        /**
+         * Any other failure, for example an unavailable identity store.
+         */
+        ERROR;
+
+        /**
+         * @param failure The failure
+         * @return {@link #FAILURE} for the {@link AuthenticationFailedException}, {@link #ERROR} otherwise
+         */
+        public static Outcome of(Throwable failure) {
+            return failure instanceof AuthenticationFailedException ? FAILURE : ERROR;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.quarkus.security.tracing;
+
+import java.util.function.Consumer;
+
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.request.AnonymousAuthenticationRequest;
+import io.quarkus.security.identity.request.AuthenticationRequest;
+import io.quarkus.security.metrics.SecurityMetrics.Outcome;
+
+/**
+ * {@link SecurityTracer} that records a {@link SecurityTrace} timeline for every authentication. The timeline is
+ * stored as the {@link #TRACE_ATTRIBUTE} authentication request attribute while the authentication is in progress,
+ * and it is passed to the listener when the authentication has finished. For example, slow authentications can be
+ * logged like this:
+ * <pre>
+ * {@code
+ * new RecordingSecurityTracer(trace -> {
+ *     if (trace.getDurationNanos() > SLOW_THRESHOLD) {
+ *         LOG.warn(trace);
+ *     }
+ * });
+ * }
+ * </pre>
+ * The {@link AnonymousAuthenticationRequest} is never traced, as its instance is shared.
+ */
+public final class RecordingSecurityTracer implements SecurityTracer {
+
+    /**
+     * The authentication request attribute name that is used to store the {@link SecurityTrace}.
+     */
+    public static final String TRACE_ATTRIBUTE = "quarkus.security.trace";
+
+    private final Consumer<SecurityTrace> listener;
+
+    /**
+     * @param listener receives every finished trace
+     */
+    public RecordingSecurityTracer(Consumer<SecurityTrace> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param request The authentication request
+     * @return The trace of the authentication request, or null if the request has not been traced
+     */
+    public static SecurityTrace getTrace(AuthenticationRequest request) {
+        return request.getAttribute(TRACE_ATTRIBUTE);
+    }
+
+    @Override
+    public void authenticationStarted(AuthenticationRequest request) {
+        if (request instanceof AnonymousAuthenticationRequest) {
+            // shared instance, must not carry per-request state
+            return;
+        }
+        request.setAttribute(TRACE_ATTRIBUTE, new SecurityTrace(System.nanoTime()));
+    }
+
+    @Override
+    public void authenticationEnded(AuthenticationRequest request, SecurityIdentity identity, Throwable failure) {
+        SecurityTrace trace = getTrace(request);
+        if (trace != null) {
+            trace.end(failure == null ? Outcome.SUCCESS : Outcome.of(failure), System.nanoTime());
+            listener.accept(trace);
+        }
+    }
+
+    @Override
+    public void providerStarted(AuthenticationRequest request, Class<?> providerClass) {
+        SecurityTrace trace = getTrace(request);
+        if (trace != null) {
+            trace.start(SecurityTrace.Span.Kind.PROVIDER, providerClass, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void providerEnded(AuthenticationRequest request, Class<?> providerClass, Outcome outcome) {
+        SecurityTrace trace = getTrace(request);
+        if (trace != null) {
+            trace.end(SecurityTrace.Span.Kind.PROVIDER, providerClass, outcome, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void augmentorStarted(AuthenticationRequest request, Class<?> augmentorClass) {
+        SecurityTrace trace = getTrace(request);
+        if (trace != null) {
+            trace.start(SecurityTrace.Span.Kind.AUGMENTOR, augmentorClass, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void augmentorEnded(AuthenticationRequest request, Class<?> augmentorClass, Outcome outcome) {
+        SecurityTrace trace = getTrace(request);
+        if (trace != null) {
+            trace.end(SecurityTrace.Span.Kind.AUGMENTOR, augmentorClass, outcome, System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package io.quarkus.security.tracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.quarkus.security.metrics.SecurityMetrics.Outcome;
+
+/**
+ * Timeline of one traced authentication, recorded by the {@link RecordingSecurityTracer}.
+ */
+public final class SecurityTrace {
+
+    private final long startNanos;
+    private final List<Span> spans = new ArrayList<>();
+    private volatile long durationNanos = -1;
+    private volatile Outcome outcome;
+
+    SecurityTrace(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * @return spans of the identity providers and augmentors in the order they were started
+     */
+    public List<Span> getSpans() {
+        synchronized (spans) {
+            return Collections.unmodifiableList(new ArrayList<>(spans));
+        }
+    }
+
+    /**
+     * @return duration of the whole authentication in nanoseconds, or -1 if it has not finished yet
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return outcome of the whole authentication, or null if it has not finished yet
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return the span that took the longest, or null if there are no finished spans
+     */
+    public Span getSlowestSpan() {
+        Span slowest = null;
+        for (Span span : getSpans()) {
+            if (slowest == null || span.durationNanos > slowest.durationNanos) {
+                slowest = span;
+            }
+        }
+        return slowest == null || slowest.durationNanos < 0 ? null : slowest;
+    }
+
+    void start(Span.Kind kind, Class<?> type, long nanos) {
+        synchronized (spans) {
+            spans.add(new Span(kind, type, nanos - startNanos));
+        }
+    }
+
+    void end(Span.Kind kind, Class<?> type, Outcome outcome, long nanos) {
+        synchronized (spans) {
+            // providers and augmentors run one after another, so the span is almost always the last one
+            for (int i = spans.size() - 1; i >= 0; i--) {
+                Span span = spans.get(i);
+                if (span.kind == kind && span.type == type && span.durationNanos < 0) {
+                    span.durationNanos = nanos - startNanos - span.startOffsetNanos;
+                    span.outcome = outcome;
+                    return;
+                }
+            }
+        }
+    }
+
+    void end(Outcome outcome, long nanos) {
+        this.outcome = outcome;
+        this.durationNanos = nanos - startNanos;
+    }
+
+    /**
+     * @return human-readable timeline, one line per span
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Authentication ");
+        sb.append(outcome == null ? "IN PROGRESS" : outcome).append(' ');
+        appendMillis(sb, durationNanos);
+        for (Span span : getSpans()) {
+            sb.append(System.lineSeparator()).append("  +");
+            appendMillis(sb, span.startOffsetNanos);
+            sb.append(' ').append(span.kind).append(' ').append(span.type.getName()).append(' ')
+                    .append(span.outcome == null ? "IN PROGRESS" : span.outcome).append(' ');
+            appendMillis(sb, span.durationNanos);
+        }
+        return sb.toString();
+    }
+
+    private static void appendMillis(StringBuilder sb, long nanos) {
+        if (nanos < 0) {
+            sb.append('-');
+        } else {
+            sb.append(String.format("%.3fms", nanos / 1_000_000.0));
+        }
+    }
+
+    /**
+     * One identity provider or augmentor invocation.
+     */
+    public static final class Span {
+
+        public enum Kind {
+            PROVIDER,
+            AUGMENTOR
+        }
+
+        private final Kind kind;
+        private final Class<?> type;
+        private final long startOffsetNanos;
+        private volatile long durationNanos = -1;
+        private volatile Outcome outcome;
+
+        private Span(Kind kind, Class<?> type, long startOffsetNanos) {
+            this.kind = kind;
+            this.type = type;
+            this.startOffsetNanos = startOffsetNanos;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return The identity provider or augmentor class
+         */
+        public Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * @return nanoseconds between the start of the authentication and the start of this span
+         */
+        public long getStartOffsetNanos() {
+            return startOffsetNanos;
+        }
+
+        /**
+         * @return duration of this span in nanoseconds, or -1 if it has not finished yet
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return outcome of this span, or null if it has not finished yet
+         */
+        public Outcome getOutcome() {
+            return outcome;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.quarkus.security.tracing;
+
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.IdentityProviderManager;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.SecurityIdentityAugmentor;
+import io.quarkus.security.identity.request.AuthenticationRequest;
+import io.quarkus.security.metrics.SecurityMetrics.Outcome;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Hooks that {@link IdentityProviderManager} implementations invoke while they process an
+ * {@link AuthenticationRequest}, so that it is possible to see which {@link IdentityProvider}s declined the request,
+ * which one created the identity, and how long each {@link SecurityIdentityAugmentor} took.
+ * <p>
+ * The authentication request is passed to every hook and identifies the traced authentication. All the hooks are
+ * no-op by default, and when {@link #isEnabled()} returns false, the trace methods return the original {@link Uni}
+ * unchanged.
+ *
+ * @see RecordingSecurityTracer
+ */
+public interface SecurityTracer {
+
+    /**
+     * Tracer that traces nothing.
+     */
+    SecurityTracer DISABLED = new SecurityTracer() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    /**
+     * @return true if the authentication should be traced
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Invoked when the {@link IdentityProviderManager} starts processing the request.
+     *
+     * @param request The authentication request
+     */
+    default void authenticationStarted(AuthenticationRequest request) {
+    }
+
+    /**
+     * Invoked when the {@link IdentityProviderManager} finished processing the request, including the augmentation.
+     *
+     * @param request The authentication request
+     * @param identity The resulting identity, or null if the authentication failed
+     * @param failure The authentication failure, or null if the authentication succeeded
+     */
+    default void authenticationEnded(AuthenticationRequest request, SecurityIdentity identity, Throwable failure) {
+    }
+
+    /**
+     * Invoked before the request is offered to the identity provider.
+     *
+     * @param request The authentication request
+     * @param providerClass The identity provider class
+     */
+    default void providerStarted(AuthenticationRequest request, Class<?> providerClass) {
+    }
+
+    /**
+     * Invoked when the identity provider completed.
+     *
+     * @param request The authentication request
+     * @param providerClass The identity provider class
+     * @param outcome {@link Outcome#NO_IDENTITY} if the provider declined the request
+     */
+    default void providerEnded(AuthenticationRequest request, Class<?> providerClass, Outcome outcome) {
+    }
+
+    /**
+     * Invoked before the identity is passed to the augmentor.
+     *
+     * @param request The authentication request
+     * @param augmentorClass The augmentor class
+     */
+    default void augmentorStarted(AuthenticationRequest request, Class<?> augmentorClass) {
+    }
+
+    /**
+     * Invoked when the augmentor completed.
+     *
+     * @param request The authentication request
+     * @param augmentorClass The augmentor class
+     * @param outcome The augmentation outcome
+     */
+    default void augmentorEnded(AuthenticationRequest request, Class<?> augmentorClass, Outcome outcome) {
+    }
+
+    /**
+     * Traces the whole authentication when the returned Uni is subscribed to.
+     *
+     * @param request The authentication request
+     * @param authentication The authentication, including the augmentation
+     * @return The traced authentication
+     */
+    default Uni<SecurityIdentity> traceAuthentication(AuthenticationRequest request,
+            Uni<SecurityIdentity> authentication) {
+        if (!isEnabled()) {
+            return authentication;
+        }
+        return Uni.createFrom().deferred(() -> {
+            authenticationStarted(request);
+            return authentication.onItemOrFailure()
+                    .invoke((identity, failure) -> authenticationEnded(request, identity, failure));
+        });
+    }
+
+    /**
+     * Traces the identity provider when the returned Uni is subscribed to.
+     *
+     * @param request The authentication request
+     * @param providerClass The identity provider class
+     * @param authentication The Uni returned by the {@link IdentityProvider#authenticate}
+     * @return The traced authentication
+     */
+    default Uni<SecurityIdentity> traceProvider(AuthenticationRequest request, Class<?> providerClass,
+            Uni<SecurityIdentity> authentication) {
+        if (!isEnabled()) {
+            return authentication;
+        }
+        return Uni.createFrom().deferred(() -> {
+            providerStarted(request, providerClass);
+            return authentication.onItemOrFailure().invoke((identity, failure) -> providerEnded(request, providerClass,
+                    failure == null ? (identity == null ? Outcome.NO_IDENTITY : Outcome.SUCCESS) : Outcome.of(failure)));
+        });
+    }
+
+    /**
+     * Traces the augmentor when the returned Uni is subscribed to.
+     *
+     * @param request The authentication request
+     * @param augmentorClass The augmentor class
+     * @param augmentation The Uni returned by the {@link SecurityIdentityAugmentor#augment}
+     * @return The traced augmentation
+     */
+    default Uni<SecurityIdentity> traceAugmentor(AuthenticationRequest request, Class<?> augmentorClass,
+            Uni<SecurityIdentity> augmentation) {
+        if (!isEnabled()) {
+            return augmentation;
+        }
+        return Uni.createFrom().deferred(() -> {
+            augmentorStarted(request, augmentorClass);
+            return augmentation.onItemOrFailure().invoke((identity, failure) -> augmentorEnded(request, augmentorClass,
+                    failure == null ? Outcome.SUCCESS : Outcome.of(failure)));
+        });
+    }
+}
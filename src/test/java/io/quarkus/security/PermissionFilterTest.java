@@ -0,0 +1,166 @@
+package io.quarkus.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.security.Permission;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.security.credential.Credential;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+public class PermissionFilterTest {
+
+    @Test
+    public void testPermissionsCheckedOncePerWindow() {
+        EvenRowsIdentity identity = new EvenRowsIdentity(Duration.ZERO);
+        List<Long> rows = Multi.createFrom().range(0, 1000).map(Long::valueOf)
+                .plug(PermissionFilter.builder(identity, (Long row) -> new StringPermission("row", row.toString()))
+                        .windowSize(100)
+                        .build())
+                .collect().asList().await().atMost(Duration.ofSeconds(10));
+        assertEquals(evenRows(1000), rows);
+        assertEquals(10, identity.batches.get());
+    }
+
+    @Test
+    public void testTimedWindowsEmittedWhileCheckingPermissions() {
+        // windows are emitted every 20 ms while every window is checked for 50 ms
+        EvenRowsIdentity identity = new EvenRowsIdentity(Duration.ofMillis(50));
+        List<Long> rows = Multi.createFrom().ticks().every(Duration.ofMillis(5)).select().first(100)
+                .plug(PermissionFilter.builder(identity, (Long row) -> new StringPermission("row", row.toString()))
+                        .windowSize(16)
+                        .maxWindowDelay(Duration.ofMillis(20))
+                        .build())
+                .collect().asList().await().atMost(Duration.ofSeconds(30));
+        assertEquals(evenRows(100), rows);
+    }
+
+    @Test
+    public void testPermissionChecksBoundedByConcurrency() {
+        EvenRowsIdentity identity = new EvenRowsIdentity(Duration.ofMillis(2), false);
+        List<Long> rows = Multi.createFrom().range(0, 200).map(Long::valueOf)
+                .plug(PermissionFilter.builder(identity, (Long row) -> new StringPermission("row", row.toString()))
+                        .windowSize(100)
+                        .concurrency(4)
+                        .build())
+                .collect().asList().await().atMost(Duration.ofSeconds(10));
+        assertEquals(evenRows(200), rows);
+        assertEquals(0, identity.batches.get());
+        assertTrue(identity.maxInFlight.get() <= 4, "Concurrent checks: " + identity.maxInFlight.get());
+    }
+
+    private static List<Long> evenRows(int count) {
+        List<Long> rows = new ArrayList<>();
+        for (long row = 0; row < count; row += 2) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Identity that is granted the permissions of the even rows.
+     */
+    private static final class EvenRowsIdentity implements SecurityIdentity {
+
+        private final Duration checkDuration;
+        private final boolean batching;
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        private EvenRowsIdentity(Duration checkDuration) {
+            this(checkDuration, true);
+        }
+
+        private EvenRowsIdentity(Duration checkDuration, boolean batching) {
+            this.checkDuration = checkDuration;
+            this.batching = batching;
+        }
+
+        @Override
+        public Uni<Set<Permission>> checkPermissions(Collection<? extends Permission> permissions, int concurrency) {
+            if (!batching) {
+                return SecurityIdentity.super.checkPermissions(permissions, concurrency);
+            }
+            batches.incrementAndGet();
+            Set<Permission> granted = new HashSet<>();
+            for (Permission permission : permissions) {
+                if (isGranted(permission)) {
+                    granted.add(permission);
+                }
+            }
+            Uni<Set<Permission>> result = Uni.createFrom().item(granted);
+            return checkDuration.isZero() ? result : result.onItem().delayIt().by(checkDuration);
+        }
+
+        @Override
+        public Uni<Boolean> checkPermission(Permission permission) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return Uni.createFrom().item(isGranted(permission))
+                    .onItem().delayIt().by(checkDuration)
+                    .eventually(inFlight::decrementAndGet);
+        }
+
+        private static boolean isGranted(Permission permission) {
+            return Long.parseLong(((StringPermission) permission).getActions()) % 2 == 0;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return () -> "alice";
+        }
+
+        @Override
+        public boolean isAnonymous() {
+            return false;
+        }
+
+        @Override
+        public Set<String> getRoles() {
+            return Set.of();
+        }
+
+        @Override
+        public boolean hasRole(String role) {
+            return false;
+        }
+
+        @Override
+        public Set<Permission> getPermissions() {
+            return Set.of();
+        }
+
+        @Override
+        public <T extends Credential> T getCredential(Class<T> credentialType) {
+            return null;
+        }
+
+        @Override
+        public Set<Credential> getCredentials() {
+            return Set.of();
+        }
+
+        @Override
+        public <T> T getAttribute(String name) {
+            return null;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return Map.of();
+        }
+    }
+}
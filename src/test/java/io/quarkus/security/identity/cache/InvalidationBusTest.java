@@ -0,0 +1,87 @@
+package io.quarkus.security.identity.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.security.credential.PasswordCredential;
+import io.quarkus.security.credential.TokenCredential;
+
+public class InvalidationBusTest {
+
+    @Test
+    public void testEventsDeliveredToOtherNodes() {
+        InMemoryInvalidationTransport transport = new InMemoryInvalidationTransport();
+        InvalidationBus bus1 = new InvalidationBus(transport);
+        InvalidationBus bus2 = new InvalidationBus(transport.connect());
+        List<InvalidationEvent> received1 = new CopyOnWriteArrayList<>();
+        List<InvalidationEvent> received2 = new CopyOnWriteArrayList<>();
+        bus1.subscribe(received1::add);
+        bus2.subscribe(received2::add);
+
+        List<InvalidationEvent> events = List.of(
+                InvalidationEvent.principal("alice"),
+                InvalidationEvent.role("admin"),
+                InvalidationEvent.permission("orders"),
+                InvalidationEvent.credential(new TokenCredential("token", "bearer").getFingerprint()));
+        for (InvalidationEvent event : events) {
+            bus1.publish(event);
+        }
+
+        // delivered once to the local listeners and once to the listeners of the other node
+        assertEquals(events, received1);
+        assertEquals(events, received2);
+    }
+
+    @Test
+    public void testOwnEventsNotReceivedBack() {
+        InMemoryInvalidationTransport transport = new InMemoryInvalidationTransport();
+        InvalidationBus bus1 = new InvalidationBus(transport);
+        InvalidationBus bus2 = new InvalidationBus(transport.connect());
+        List<InvalidationEvent> received1 = new CopyOnWriteArrayList<>();
+        List<InvalidationEvent> received2 = new CopyOnWriteArrayList<>();
+        bus1.subscribe(received1::add);
+        bus2.subscribe(received2::add);
+
+        bus2.publish(InvalidationEvent.role("user"));
+
+        assertEquals(List.of(InvalidationEvent.role("user")), received1);
+        assertEquals(List.of(InvalidationEvent.role("user")), received2);
+    }
+
+    @Test
+    public void testPasswordEventsNotSentToOtherNodes() {
+        InMemoryInvalidationTransport transport = new InMemoryInvalidationTransport();
+        InvalidationBus bus1 = new InvalidationBus(transport);
+        InvalidationBus bus2 = new InvalidationBus(transport.connect());
+        List<InvalidationEvent> received1 = new CopyOnWriteArrayList<>();
+        List<InvalidationEvent> received2 = new CopyOnWriteArrayList<>();
+        bus1.subscribe(received1::add);
+        bus2.subscribe(received2::add);
+
+        InvalidationEvent event = InvalidationEvent
+                .credential(new PasswordCredential("secret".toCharArray()).getFingerprint());
+        bus1.publish(event);
+
+        assertEquals(List.of(event), received1);
+        assertEquals(List.of(), received2);
+    }
+
+    @Test
+    public void testDisconnectedNodeReceivesNoEvents() {
+        InMemoryInvalidationTransport transport = new InMemoryInvalidationTransport();
+        InMemoryInvalidationTransport other = transport.connect();
+        InvalidationBus bus1 = new InvalidationBus(transport);
+        InvalidationBus bus2 = new InvalidationBus(other);
+        List<InvalidationEvent> received2 = new CopyOnWriteArrayList<>();
+        bus2.subscribe(received2::add);
+
+        other.disconnect();
+        bus1.publish(InvalidationEvent.all());
+
+        assertEquals(List.of(), received2);
+    }
+}
@@ -0,0 +1,161 @@
+package io.quarkus.security.identity.prevalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.security.credential.TokenCredential;
+import io.quarkus.security.identity.request.TokenAuthenticationRequest;
+
+public class JwtPrevalidatorTest {
+
+    private static final String HEADER = encode("{\"alg\":\"RS256\",\"typ\":\"JWT\"}");
+    private static final String SIGNATURE = "c2lnbmF0dXJl";
+
+    private final JwtPrevalidator prevalidator = JwtPrevalidator.builder().issuers("https://issuer").build();
+
+    @Test
+    public void testValidToken() {
+        assertVerdict(PrevalidationVerdict.ACCEPTED,
+                jwt("{\"iss\":\"https://issuer\",\"exp\":" + inSeconds(600) + "}"));
+        assertVerdict(PrevalidationVerdict.ACCEPTED, jwt("{ \"sub\" : \"alice\", \"groups\": [\"a\", {\"b\": \"}\"}],"
+                + " \"admin\": false, \"n\": null, \"iss\": \"https:\\/\\/issuer\", \"exp\": " + inSeconds(600)
+                + ".5e0 }"));
+    }
+
+    @Test
+    public void testExpiredToken() {
+        assertVerdict(PrevalidationVerdict.EXPIRED,
+                jwt("{\"iss\":\"https://issuer\",\"exp\":" + inSeconds(-600) + "}"));
+        // within the default clock skew of 60 seconds
+        assertVerdict(PrevalidationVerdict.ACCEPTED,
+                jwt("{\"iss\":\"https://issuer\",\"exp\":" + inSeconds(-30) + "}"));
+    }
+
+    @Test
+    public void testNotYetValidToken() {
+        assertVerdict(PrevalidationVerdict.NOT_YET_VALID,
+                jwt("{\"iss\":\"https://issuer\",\"exp\":" + inSeconds(1200) + ",\"nbf\":" + inSeconds(600) + "}"));
+        assertVerdict(PrevalidationVerdict.ACCEPTED,
+                jwt("{\"iss\":\"https://issuer\",\"exp\":" + inSeconds(1200) + ",\"nbf\":" + inSeconds(30) + "}"));
+    }
+
+    @Test
+    public void testUntrustedIssuer() {
+        assertVerdict(PrevalidationVerdict.UNTRUSTED_ISSUER,
+                jwt("{\"iss\":\"https://other\",\"exp\":" + inSeconds(600) + "}"));
+        assertVerdict(PrevalidationVerdict.UNTRUSTED_ISSUER, jwt("{\"exp\":" + inSeconds(600) + "}"));
+    }
+
+    @Test
+    public void testMissingExpiration() {
+        assertVerdict(PrevalidationVerdict.MALFORMED, jwt("{\"iss\":\"https://issuer\"}"));
+        assertVerdict(PrevalidationVerdict.ACCEPTED, JwtPrevalidator.builder().requireExpiration(false).build(),
+                jwt("{\"iss\":\"https://issuer\"}"));
+    }
+
+    @Test
+    public void testEscapedClaimNames() {
+        assertVerdict(PrevalidationVerdict.ACCEPTED,
+                jwt("{\"\\u0069ss\":\"https://issuer\",\"\\u0065xp\":" + inSeconds(600) + "}"));
+        assertVerdict(PrevalidationVerdict.EXPIRED,
+                jwt("{\"iss\":\"https://issuer\",\"e\\u0078p\":" + inSeconds(-600) + "}"));
+        assertVerdict(PrevalidationVerdict.MALFORMED,
+                jwt("{\"iss\":\"https://issuer\",\"\\x\":1,\"exp\":" + inSeconds(600) + "}"));
+    }
+
+    @Test
+    public void testPaddedToken() {
+        String claims = "{\"iss\":\"https://issuer\",\"exp\":" + inSeconds(600) + "}";
+        String padded = Base64.getUrlEncoder().encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        if (!padded.endsWith("=")) {
+            claims = claims.substring(0, claims.length() - 1) + " }";
+            padded = Base64.getUrlEncoder().encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        }
+        assertVerdict(PrevalidationVerdict.ACCEPTED, HEADER + "." + padded + "." + SIGNATURE);
+        assertVerdict(PrevalidationVerdict.MALFORMED, HEADER + ".=" + padded + "." + SIGNATURE);
+    }
+
+    @Test
+    public void testOversizedToken() {
+        JwtPrevalidator small = JwtPrevalidator.builder().maxLength(100).build();
+        String token = jwt("{\"exp\":" + inSeconds(600) + ",\"sub\":\"" + "x".repeat(100) + "\"}");
+        assertVerdict(PrevalidationVerdict.TOO_LARGE, small, token);
+        byte[] bytes = ("_" + token).getBytes(StandardCharsets.UTF_8);
+        assertEquals(PrevalidationVerdict.TOO_LARGE, small.prevalidate(new TokenAuthenticationRequest(
+                TokenCredential.ofBytes(bytes, 1, bytes.length - 1, "bearer"))));
+        // the length limit applies to the encoded bytes
+        assertVerdict(PrevalidationVerdict.TOO_LARGE, small, "\u20ac".repeat(34));
+        assertVerdict(PrevalidationVerdict.ACCEPTED, small, "\u20ac".repeat(33));
+    }
+
+    @Test
+    public void testOpaqueToken() {
+        assertVerdict(PrevalidationVerdict.ACCEPTED, "2YotnFZFEjr1zCsicMWpAA");
+        assertVerdict(PrevalidationVerdict.ACCEPTED, "opaque token+/=");
+        assertVerdict(PrevalidationVerdict.ACCEPTED, "a.b");
+        assertVerdict(PrevalidationVerdict.MALFORMED, "");
+    }
+
+    @Test
+    public void testEncryptedToken() {
+        assertVerdict(PrevalidationVerdict.ACCEPTED, "eyJhbGciOiJSU0EtT0FFUCJ9.a2V5.aXY.Y2lwaGVydGV4dA.dGFn");
+    }
+
+    @Test
+    public void testMalformedToken() {
+        assertVerdict(PrevalidationVerdict.MALFORMED, HEADER + ".ab!c." + SIGNATURE);
+        assertVerdict(PrevalidationVerdict.MALFORMED, "." + encode("{}") + "." + SIGNATURE);
+        // unsigned token
+        assertVerdict(PrevalidationVerdict.MALFORMED,
+                HEADER + "." + encode("{\"iss\":\"https://issuer\",\"exp\":" + inSeconds(600) + "}") + ".");
+        // invalid segment length
+        assertVerdict(PrevalidationVerdict.MALFORMED, HEADER + ".abcde." + SIGNATURE);
+    }
+
+    @Test
+    public void testMalformedJson() {
+        String exp = "\"exp\":" + inSeconds(600);
+        assertVerdict(PrevalidationVerdict.MALFORMED, jwt("[" + exp + "]"));
+        assertVerdict(PrevalidationVerdict.MALFORMED, jwt("{" + exp + ",}"));
+        assertVerdict(PrevalidationVerdict.MALFORMED, jwt("{" + exp));
+        assertVerdict(PrevalidationVerdict.MALFORMED, jwt("{" + exp + "} {}"));
+        assertVerdict(PrevalidationVerdict.MALFORMED, jwt("{\"exp\":\"" + inSeconds(600) + "\"}"));
+        assertVerdict(PrevalidationVerdict.MALFORMED, jwt("{" + exp + ",\"sub\":\"unterminated}"));
+        assertVerdict(PrevalidationVerdict.MALFORMED, jwt("{" + exp + ",\"groups\":[\"a\"}"));
+        assertVerdict(PrevalidationVerdict.MALFORMED, jwt("{" + exp + ",\"admin\":tru}"));
+    }
+
+    @Test
+    public void testUncheckedTokenType() {
+        JwtPrevalidator bearerOnly = JwtPrevalidator.builder().tokenTypes("bearer").build();
+        assertEquals(PrevalidationVerdict.ACCEPTED,
+                bearerOnly.prevalidate(new TokenAuthenticationRequest(new TokenCredential("a.b!.c", "other"))));
+        assertEquals(PrevalidationVerdict.MALFORMED,
+                bearerOnly.prevalidate(new TokenAuthenticationRequest(new TokenCredential("a.b!.c", "bearer"))));
+    }
+
+    private void assertVerdict(PrevalidationVerdict expected, String token) {
+        assertVerdict(expected, prevalidator, token);
+    }
+
+    private static void assertVerdict(PrevalidationVerdict expected, JwtPrevalidator prevalidator, String token) {
+        TokenAuthenticationRequest request = new TokenAuthenticationRequest(new TokenCredential(token, "bearer"));
+        assertEquals(expected, prevalidator.prevalidate(request), token);
+    }
+
+    private static String jwt(String claims) {
+        return HEADER + "." + encode(claims) + "." + SIGNATURE;
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long inSeconds(long seconds) {
+        return System.currentTimeMillis() / 1000 + seconds;
+    }
+}